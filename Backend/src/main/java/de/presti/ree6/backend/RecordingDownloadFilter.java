@@ -0,0 +1,42 @@
+package de.presti.ree6.backend;
+
+import de.presti.ree6.backend.utils.data.RecordingDownload;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter which closes the {@link RecordingDownload} of a request once its response has been written,
+ * releasing the download slot even if the response failed or the client went away.
+ */
+@Component
+public class RecordingDownloadFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Downloads are created asynchronously, the response is written in the async dispatch.
+            if (!request.isAsyncStarted() && request.getAttribute(RecordingDownload.ATTRIBUTE) instanceof RecordingDownload download) {
+                download.close();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+}
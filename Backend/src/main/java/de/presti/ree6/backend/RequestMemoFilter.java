@@ -0,0 +1,25 @@
+package de.presti.ree6.backend;
+
+import de.presti.ree6.backend.utils.data.RequestMemo;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter which attaches a new {@link RequestMemo} to every request.
+ */
+@Component
+public class RequestMemoFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
+        request.setAttribute(RequestMemo.ATTRIBUTE, new RequestMemo());
+        filterChain.doFilter(request, response);
+    }
+}
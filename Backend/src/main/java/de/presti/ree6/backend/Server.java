@@ -21,6 +21,7 @@ import de.presti.ree6.sql.util.SQLConfig;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 
 import java.time.Duration;
 import java.util.Optional;
@@ -135,7 +136,9 @@ public class Server {
         new SQLSession(sqlConfig);
 
         // Creating OAuth2 Instance.
-        oAuth2Client = new OAuth2Client.Builder().setClientId(config.getConfiguration().getLong("discord.client.id")).setClientSecret(config.getConfiguration().getString("discord.client.secret")).build();
+        oAuth2Client = new OAuth2Client.Builder().setClientId(config.getConfiguration().getLong("discord.client.id")).setClientSecret(config.getConfiguration().getString("discord.client.secret"))
+                .setOkHttpClient(new OkHttpClient.Builder().addInterceptor(new RateLimitInterceptor()).build())
+                .setSessionController(createSessionController()).build();
 
         // Create a new JDA Session.
         try {
@@ -207,6 +210,27 @@ public class Server {
         }, throwable -> log.error("Failed running Data clear Thread", throwable), Duration.ofMinutes(5), true, false);
     }
 
+    /**
+     * Create the Session Controller of the OAuth2 Client, as configured.
+     * The database store needs a key to encrypt the tokens with, without one the Sessions are kept in memory.
+     *
+     * @return the Session Controller.
+     */
+    private CustomSessionController createSessionController() {
+        if (!Data.getSessionStoreType().equalsIgnoreCase("database")) {
+            return new CustomSessionController();
+        }
+
+        String encryptionKey = Data.getSessionStoreEncryptionKey();
+
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            log.error("The database Session store needs an encryption key, keeping the Sessions in memory instead!");
+            return new CustomSessionController();
+        }
+
+        return new DatabaseSessionController(encryptionKey);
+    }
+
     /**
      * Call when the Application shutdowns.
      */
@@ -216,6 +240,15 @@ public class Server {
 
         credentialManager.save();
 
+        // Write the pending Session usage.
+        if (oAuth2Client.getSessionController() instanceof DatabaseSessionController databaseSessionController) {
+            try {
+                databaseSessionController.flush();
+            } catch (Exception exception) {
+                log.error("Failed to flush Session usage", exception);
+            }
+        }
+
         // Shutdown the SQL Connection.
         SQLSession.getSqlConnector().close();
     }
@@ -0,0 +1,58 @@
+package de.presti.ree6.backend;
+
+import de.presti.ree6.backend.service.SessionService;
+import de.presti.ree6.backend.utils.SessionTokenUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter which hands out a new Session Token in the {@value #HEADER} header, once the Token of a request is about to expire.
+ * The client replaces its Token with it, so Sessions last as long as the client is used.
+ */
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the response header carrying the new Token.
+     */
+    public static final String HEADER = "X-Session-Token";
+
+    /**
+     * Session Service used to refresh the Tokens.
+     */
+    private final SessionService sessionService;
+
+    /**
+     * Constructor for the Session Token Filter.
+     *
+     * @param sessionService Session Service used to refresh the Tokens.
+     */
+    @Autowired
+    public SessionTokenFilter(SessionService sessionService) {
+        this.sessionService = sessionService;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader("X-Session-Authenticator");
+
+        if (Data.isStatelessTokens() && SessionTokenUtil.isToken(token)) {
+            String refreshedToken = sessionService.refreshToken(token);
+
+            if (refreshedToken != null) {
+                response.setHeader(HEADER, refreshedToken);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -17,6 +17,6 @@ public class WebConfig implements WebMvcConfigurer {
         log.info("Setting up CORS");
         String allowedDomain = Data.getAllowedDomains();
         log.info("Allowed Domain: {}", allowedDomain);
-        registry.addMapping("/**").allowedOriginPatterns(allowedDomain);
+        registry.addMapping("/**").allowedOriginPatterns(allowedDomain).exposedHeaders(SessionTokenFilter.HEADER);
     }
 }
\ No newline at end of file
@@ -1,26 +1,35 @@
 package de.presti.ree6.backend.controller;
 
 
-import de.presti.ree6.backend.bot.BotWorker;
 import de.presti.ree6.backend.service.GuildService;
+import de.presti.ree6.backend.service.LeaderboardService;
+import de.presti.ree6.backend.service.RecordingService;
 import de.presti.ree6.backend.service.SessionService;
 import de.presti.ree6.backend.utils.data.ConverterUtil;
 import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.LeaderboardType;
+import de.presti.ree6.backend.utils.data.RecordingDownload;
+import de.presti.ree6.backend.utils.data.RecordingStorage;
 import de.presti.ree6.backend.utils.data.container.*;
 import de.presti.ree6.backend.utils.data.container.api.*;
+import de.presti.ree6.backend.utils.data.container.guild.DashboardContainer;
 import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
 import de.presti.ree6.backend.utils.data.container.guild.GuildStatsContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleLevelContainer;
-import de.presti.ree6.backend.utils.data.container.user.UserContainer;
-import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
 import de.presti.ree6.sql.SQLSession;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -29,20 +38,36 @@ import reactor.core.publisher.Mono;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
 @RestController
 @RequestMapping("/guilds")
 public class GuildController {
+    // Request attributes of the Tomcat sendfile support.
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final MediaType AUDIO_FLAC = MediaType.parseMediaType("audio/flac");
+    private static final MediaType AUDIO_WAV = MediaType.parseMediaType("audio/wav");
+
     private final SessionService sessionService;
 
     private final GuildService guildService;
 
+    private final LeaderboardService leaderboardService;
+
+    private final RecordingService recordingService;
+
     @Autowired
-    public GuildController(SessionService sessionService, GuildService guildService) {
+    public GuildController(SessionService sessionService, GuildService guildService, LeaderboardService leaderboardService, RecordingService recordingService) {
         this.sessionService = sessionService;
         this.guildService = guildService;
+        this.leaderboardService = leaderboardService;
+        this.recordingService = recordingService;
     }
 
     //region Guild Retrieve
@@ -63,6 +88,17 @@ public class GuildController {
 
     //endregion
 
+    //region Guild Dashboard
+
+    @GetMapping(value = "/{guildId}/dashboard", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GenericObjectResponse<DashboardContainer>> retrieveDashboard(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") long guildId) {
+        return guildService.getDashboard(sessionIdentifier, guildId)
+                .map(x -> x.map(y -> new GenericObjectResponse<>(true, y, "Dashboard retrieved!"))
+                        .orElse(new GenericObjectResponse<>(false, null, "Could not retrieve dashboard!")));
+    }
+
+    //endregion
+
     //region Guild Channel and Role
 
     @GetMapping(value = "/{guildId}/channels", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -180,41 +216,56 @@ public class GuildController {
     //region Guild Leaderboard
 
     @GetMapping(value = "/{guildId}/leaderboard/voice", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<GenericObjectResponse<LeaderboardContainer>> retrieveLeaderboardVoice(@PathVariable(name = "guildId") long guildId) {
-        return sessionService.retrieveGuild(guildId)
-                .map(x -> x.map(y -> {
-                            GuildContainer guildContainer = x.get();
+    public Mono<ResponseEntity<GenericObjectResponse<LeaderboardContainer>>> retrieveLeaderboardVoice(@PathVariable(name = "guildId") long guildId,
+                                                                                                     @RequestParam(name = "cursor", required = false) String cursor,
+                                                                                                     @RequestParam(name = "limit", required = false) Integer limit,
+                                                                                                     @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return retrieveLeaderboard(guildId, LeaderboardType.VOICE, cursor, limit, ifNoneMatch);
+    }
 
-                            return SQLSession.getSqlConnector().getSqlWorker().getTopVoice(guildId, Data.getLeaderboardTop())
-                                    .map(z -> {
-                                        LeaderboardContainer leaderboardContainer = new LeaderboardContainer();
+    @GetMapping(value = "/{guildId}/leaderboard/chat", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<GenericObjectResponse<LeaderboardContainer>>> retrieveLeaderboardChat(@PathVariable(name = "guildId") long guildId,
+                                                                                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                                                                                    @RequestParam(name = "limit", required = false) Integer limit,
+                                                                                                    @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return retrieveLeaderboard(guildId, LeaderboardType.CHAT, cursor, limit, ifNoneMatch);
+    }
 
-                                        leaderboardContainer.setChatLeaderboard(z.stream().map(c -> new UserLevelContainer(c, new UserContainer(BotWorker.getShardManager().retrieveUserById(c.getUserId()).complete()))).toList());
+    @GetMapping(value = "/{guildId}/leaderboard/{type}/rank/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GenericObjectResponse<LeaderboardRankContainer>> retrieveLeaderboardRank(@PathVariable(name = "guildId") long guildId,
+                                                                                         @PathVariable(name = "type") String type,
+                                                                                         @PathVariable(name = "userId") long userId) {
+        LeaderboardType leaderboardType = LeaderboardType.fromName(type);
 
-                                        leaderboardContainer.setGuildId(guildContainer.getId());
-                                        return new GenericObjectResponse<>(true, leaderboardContainer, "Leaderboard retrieved!");
-                                    }).block();
-                        })
+        if (leaderboardType == null) {
+            return Mono.just(new GenericObjectResponse<>(false, null, "Unknown leaderboard type!"));
+        }
+
+        return leaderboardService.retrieveRank(guildId, leaderboardType, userId)
+                .map(x -> x.map(y -> new GenericObjectResponse<>(true, y, "Rank retrieved!"))
                         .orElse(new GenericObjectResponse<>(false, null, "Could not retrieve!")));
     }
 
-    @GetMapping(value = "/{guildId}/leaderboard/chat", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<GenericObjectResponse<LeaderboardContainer>> retrieveLeaderboardChat(@PathVariable(name = "guildId") long guildId) {
-        return sessionService.retrieveGuild(guildId)
-                .map(x -> x.map(y -> {
-                            GuildContainer guildContainer = x.get();
+    private Mono<ResponseEntity<GenericObjectResponse<LeaderboardContainer>>> retrieveLeaderboard(long guildId, LeaderboardType type, String cursor, Integer limit, String ifNoneMatch) {
+        if (cursor != null || limit != null) {
+            return leaderboardService.retrievePage(guildId, type, cursor, limit != null ? limit : Data.getLeaderboardTop())
+                    .map(x -> ResponseEntity.ok(x.map(y -> new GenericObjectResponse<>(true, y, "Leaderboard retrieved!"))
+                            .orElse(new GenericObjectResponse<>(false, null, "Could not retrieve!"))));
+        }
 
-                            return SQLSession.getSqlConnector().getSqlWorker().getTopChat(guildId, Data.getLeaderboardTop())
-                                    .map(z -> {
-                                        LeaderboardContainer leaderboardContainer = new LeaderboardContainer();
+        CacheControl cacheControl = CacheControl.maxAge(Data.getLeaderboardRefresh()).cachePublic();
 
-                                        leaderboardContainer.setChatLeaderboard(z.stream().map(c -> new UserLevelContainer(c, new UserContainer(BotWorker.getShardManager().retrieveUserById(c.getUserId()).complete()))).toList());
+        return leaderboardService.retrieveLeaderboard(guildId, type)
+                .map(x -> x.map(snapshot -> {
+                            if (snapshot.etag().equals(ifNoneMatch)) {
+                                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).cacheControl(cacheControl)
+                                        .<GenericObjectResponse<LeaderboardContainer>>build();
+                            }
 
-                                        leaderboardContainer.setGuildId(guildContainer.getId());
-                                        return new GenericObjectResponse<>(true, leaderboardContainer, "Leaderboard retrieved!");
-                                    }).block();
+                            return ResponseEntity.ok().eTag(snapshot.etag()).cacheControl(cacheControl)
+                                    .body(new GenericObjectResponse<>(true, snapshot.leaderboard(), "Leaderboard retrieved!"));
                         })
-                        .orElse(new GenericObjectResponse<>(false, null, "Could not retrieve!")));
+                        .orElse(ResponseEntity.ok(new GenericObjectResponse<>(false, null, "Could not retrieve!"))));
     }
 
     //endregion
@@ -293,19 +344,133 @@ public class GuildController {
                 .map(x -> new GenericObjectResponse<>(x.isPresent(), x.orElse(null), x.isPresent() ? "Retrieved" : "Failed to retrieve!"));
     }
 
-    @GetMapping(value = "/recording/download", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<ResponseEntity<Resource>> downloadRecording(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @RequestParam(name = "recordId") String recordId) {
-        return guildService.getRecordingBytes(sessionIdentifier, recordId)
-                .map(x -> x.map(y -> {
-                    Resource resource = new ByteArrayResource(y);
-                    try {
-                        return ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM).contentLength(resource.contentLength()).header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("recording.wav").build().toString()).body(resource);
-                    } catch (IOException e) {
-                        resource = null;
-                        log.error("Failed to download recording", e);
-                        return ResponseEntity.badRequest().body(resource);
-                    }
-                }).orElse(ResponseEntity.badRequest().body(null)));
+    @GetMapping(value = "/recording/download", produces = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "audio/wav", "audio/flac"})
+    public Mono<ResponseEntity<Resource>> downloadRecording(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @RequestParam(name = "recordId") String recordId,
+                                                            @RequestHeader(name = HttpHeaders.RANGE, required = false) String range,
+                                                            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept, HttpServletRequest request) {
+        return guildService.getRecordingResource(sessionIdentifier, recordId, prefersFlac(accept))
+                .map(x -> x.map(resource -> createRecordingResponse(recordId, resource, range, request))
+                        .orElse(ResponseEntity.badRequest().body(null)));
+    }
+
+    /**
+     * Check if the client prefers FLAC over WAV.
+     * WAV stays the default, FLAC is only served if it is accepted with a higher quality than WAV.
+     *
+     * @param accept the Accept header of the request.
+     * @return true, if FLAC should be served.
+     */
+    static boolean prefersFlac(String accept) {
+        if (accept == null) return false;
+
+        try {
+            double flac = 0;
+            double wav = 0;
+
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.includes(AUDIO_FLAC)) flac = Math.max(flac, mediaType.getQualityValue());
+                if (mediaType.includes(AUDIO_WAV)) wav = Math.max(wav, mediaType.getQualityValue());
+            }
+
+            return flac > wav;
+        } catch (InvalidMediaTypeException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Check if the If-Range header of a request matches the served Recording, so its Range header may be applied.
+     * Only strong entity tags are compared, dates never match since no Last-Modified is sent.
+     *
+     * @param ifRange   the If-Range header of the request.
+     * @param entityTag the entity tag of the served bytes, null if they have none.
+     * @return true, if there is no If-Range or it matches.
+     */
+    static boolean ifRangeMatches(String ifRange, String entityTag) {
+        if (ifRange == null) return true;
+
+        return entityTag != null && ifRange.trim().equals(entityTag);
+    }
+
+    /**
+     * Create the download response of a Recording.
+     * Files are sent with sendfile by Tomcat if it is available, so they never pass through the heap.
+     * Everything else is returned as Resource, Spring answers Range requests on it with 206 Partial Content.
+     * Only a GET of the whole Recording marks it as downloaded, streamed Recordings once their last byte has been read.
+     * Streamed Recordings take a download slot before the response is created, if none becomes free 503 Service Unavailable is returned.
+     * Compressed Recordings are served as FLAC file or decoded into WAV, depending on what {@link #prefersFlac(String)} picked.
+     * Every response carries the entity tag of the served bytes, a Range request whose If-Range doesn't match it gets the whole Recording.
+     *
+     * @param recordId the identifier of the Recording.
+     * @param resource the audio of the Recording.
+     * @param range    the Range header of the request.
+     * @param request  the request.
+     * @return the response.
+     */
+    private ResponseEntity<Resource> createRecordingResponse(String recordId, Resource resource, String range, HttpServletRequest request) {
+        boolean flac = RecordingStorage.FLAC_FILENAME.equals(resource.getFilename());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(flac ? AUDIO_FLAC : MediaType.APPLICATION_OCTET_STREAM);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(flac ? RecordingStorage.FLAC_FILENAME : RecordingStorage.WAV_FILENAME).build());
+
+        String entityTag = resource instanceof RecordingStorage.TaggedResource taggedResource ? taggedResource.getEntityTag() : null;
+        if (entityTag != null) {
+            headers.setETag(entityTag);
+        }
+
+        try {
+            long length = resource.contentLength();
+            boolean rangeApplies = range != null && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), entityTag);
+            List<HttpRange> ranges = rangeApplies ? HttpRange.parseRanges(range) : List.of();
+            boolean complete = HttpMethod.GET.matches(request.getMethod()) && ranges.isEmpty();
+
+            if (!resource.isFile() || ranges.size() > 1 || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                RecordingDownload download = recordingService.startDownload(recordId, resource, complete);
+
+                if (download == null) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+                }
+
+                request.setAttribute(RecordingDownload.ATTRIBUTE, download);
+
+                if (range != null && !rangeApplies) {
+                    // Spring applies the Range header to every Resource body except an InputStreamResource.
+                    headers.setContentLength(length);
+                    return ResponseEntity.ok().headers(headers).body(new InputStreamResource(download.getInputStream()));
+                }
+
+                return ResponseEntity.ok().headers(headers).body(download);
+            }
+
+            if (complete) {
+                // Tomcat doesn't report the end of a sendfile, the delay before the deletion allows resuming it.
+                recordingService.markDownloaded(recordId);
+            }
+
+            long start = ranges.isEmpty() ? 0 : ranges.get(0).getRangeStart(length);
+            long end = ranges.isEmpty() ? length - 1 : ranges.get(0).getRangeEnd(length);
+
+            request.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+
+            headers.setContentLength(end - start + 1);
+
+            if (ranges.isEmpty()) {
+                return ResponseEntity.ok().headers(headers).build();
+            }
+
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).build();
+        } catch (IllegalArgumentException exception) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+        } catch (IOException exception) {
+            log.error("Failed to download recording", exception);
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     //endregion
@@ -356,6 +521,13 @@ public class GuildController {
 
     //region Notifier
 
+    @GetMapping(value = "/{guildId}/notifiers", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GenericObjectResponse<Map<String, List<NotifierContainer>>>> retrieveNotifiers(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") long guildId) {
+        return guildService.getAllNotifiers(sessionIdentifier, guildId)
+                .map(x -> x.map(y -> new GenericObjectResponse<>(true, y, "Notifiers received!"))
+                        .orElse(new GenericObjectResponse<>(false, null, "Couldn't retrieve Notifiers!")));
+    }
+
     //region Reddit Notifier
 
     @GetMapping(value = "/{guildId}/reddit", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -604,9 +776,9 @@ public class GuildController {
     }
 
     @PostMapping(value = "/{guildId}/warnings/clear", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<GenericResponse> clearWarnings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") long guildId) {
+    public Mono<GenericObjectResponse<Integer>> clearWarnings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") long guildId) {
         return guildService.clearWarnings(sessionIdentifier, guildId)
-                .map(x -> new GenericResponse(x, x ? "Cleared!" : "Failed to clear"));
+                .map(x -> new GenericObjectResponse<>(x.isPresent(), x.orElse(null), x.isPresent() ? "Cleared!" : "Failed to clear"));
     }
 
     //region Punishments
@@ -618,9 +790,9 @@ public class GuildController {
     }
 
     @PostMapping(value = "/{guildId}/warnings/punishments/clear", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<GenericResponse> clearPunishments(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") long guildId) {
+    public Mono<GenericObjectResponse<Integer>> clearPunishments(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier, @PathVariable(name = "guildId") long guildId) {
         return guildService.clearPunishments(sessionIdentifier, guildId)
-                .map(x -> new GenericResponse(x, x ? "Cleared!" : "Failed to clear"));
+                .map(x -> new GenericObjectResponse<>(x.isPresent(), x.orElse(null), x.isPresent() ? "Cleared!" : "Failed to clear"));
     }
 
     @PostMapping(value = "/{guildId}/warnings/punishments/add", produces = MediaType.APPLICATION_JSON_VALUE)
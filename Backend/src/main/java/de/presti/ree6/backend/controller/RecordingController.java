@@ -0,0 +1,45 @@
+package de.presti.ree6.backend.controller;
+
+import de.presti.ree6.backend.service.GuildService;
+import de.presti.ree6.backend.utils.data.container.RecordContainer;
+import de.presti.ree6.backend.utils.data.container.api.GenericObjectResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Controller meant to handle Recordings across Guilds.
+ */
+@RestController
+@RequestMapping("/recordings")
+public class RecordingController {
+
+    /**
+     * Guild Service to handle Recordings.
+     */
+    private final GuildService guildService;
+
+    /**
+     * Constructor for the Recording Controller.
+     * @param guildService Guild Service to handle Recordings.
+     */
+    @Autowired
+    public RecordingController(GuildService guildService) {
+        this.guildService = guildService;
+    }
+
+    /**
+     * Retrieve all Recordings the User of the Session took part in.
+     * @param sessionIdentifier Session Identifier to identify the Session.
+     * @return Generic Object Response with the Recordings, newest first.
+     */
+    @GetMapping(value = "/mine", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GenericObjectResponse<List<RecordContainer>>> retrieveRecordings(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier) {
+        return guildService.getRecordings(sessionIdentifier)
+                .map(x -> x.map(y -> new GenericObjectResponse<>(true, y, "Recordings retrieved!"))
+                        .orElse(new GenericObjectResponse<>(false, null, "Could not retrieve recordings!")));
+    }
+}
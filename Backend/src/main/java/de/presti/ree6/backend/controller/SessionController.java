@@ -54,6 +54,17 @@ public class SessionController {
                         .orElseGet(() -> new GenericObjectResponse<>(false, null, "Session not found!")));
     }
 
+    /**
+     * Invalidate a Session.
+     * @param sessionIdentifier Session Identifier to identify the Session.
+     * @return Generic Response with the result.
+     */
+    @PostMapping(value = "/logout", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GenericResponse> logout(@RequestHeader(name = "X-Session-Authenticator") String sessionIdentifier) {
+        sessionService.invalidateSession(sessionIdentifier);
+        return Mono.just(new GenericResponse(true, "Session invalidated!"));
+    }
+
     //endregion
 
     //region Discord Auth
@@ -130,7 +141,7 @@ public class SessionController {
             }
 
             // Add the credential to the credential manager.
-            Server.getInstance().getCredentialManager().addCredential("twitch", CustomOAuth2Util.convert(sessionContainer.get().getOAuthUser().getIdLong(), oAuth2Credential));
+            Server.getInstance().getCredentialManager().addCredential("twitch", CustomOAuth2Util.convert(sessionContainer.get().getUser().getId(), oAuth2Credential));
             Server.getInstance().getCredentialManager().save();
 
             return new GenericResponse(true, "Twitch authenticated!");
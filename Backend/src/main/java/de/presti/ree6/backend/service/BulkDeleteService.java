@@ -0,0 +1,59 @@
+package de.presti.ree6.backend.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service meant to wipe the data of a Guild with set-based deletes, instead of deleting every entity on its own.
+ */
+@Slf4j
+@Service
+public class BulkDeleteService {
+
+    /**
+     * The shared Entity Manager.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Template used to run every delete in its own transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor for the Bulk Delete Service.
+     *
+     * @param entityManager      the shared Entity Manager.
+     * @param transactionManager the Transaction Manager.
+     */
+    @Autowired
+    public BulkDeleteService(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Delete every entity of a Guild with a single statement inside one transaction.
+     *
+     * @param entityClass the class of the entity.
+     * @param guildPath   the path of the Guild ID attribute, e.g. {@code guildUserId.guildId}.
+     * @param guildId     the ID of the Guild.
+     * @return the amount of deleted rows.
+     */
+    public Mono<Integer> deleteByGuild(Class<?> entityClass, String guildPath, long guildId) {
+        String entityName = entityManager.getMetamodel().entity(entityClass).getName();
+
+        return Mono.fromCallable(() -> transactionTemplate.execute(status ->
+                        entityManager.createQuery("DELETE FROM " + entityName + " e WHERE e." + guildPath + " = :gid")
+                                .setParameter("gid", guildId)
+                                .executeUpdate()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(deleted -> log.debug("Deleted {} {} of {}", deleted, entityName, guildId));
+    }
+}
@@ -3,8 +3,11 @@ package de.presti.ree6.backend.service;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.NotifierType;
 import de.presti.ree6.backend.utils.data.container.*;
 import de.presti.ree6.backend.utils.data.container.api.GenericNotifierRequest;
+import de.presti.ree6.backend.utils.data.container.guild.DashboardContainer;
 import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
 import de.presti.ree6.backend.utils.data.container.guild.GuildStatsContainer;
 import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
@@ -21,12 +24,14 @@ import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -35,46 +40,132 @@ public class GuildService {
 
     private final SessionService sessionService;
 
+    private final WebhookService webhookService;
+
+    private final UserService userService;
+
+    private final BulkDeleteService bulkDeleteService;
+
+    private final MessageService messageService;
+
+    private final WebhookPoolService webhookPoolService;
+
+    private final StatsService statsService;
+
+    private final RecordingService recordingService;
+
     @Autowired
-    public GuildService(SessionService sessionService) {
+    public GuildService(SessionService sessionService, WebhookService webhookService, UserService userService,
+                        BulkDeleteService bulkDeleteService, MessageService messageService, WebhookPoolService webhookPoolService,
+                        StatsService statsService, RecordingService recordingService) {
         this.sessionService = sessionService;
+        this.webhookService = webhookService;
+        this.userService = userService;
+        this.bulkDeleteService = bulkDeleteService;
+        this.messageService = messageService;
+        this.webhookPoolService = webhookPoolService;
+        this.statsService = statsService;
+        this.recordingService = recordingService;
     }
 
     //region Stats
 
     public Mono<Optional<GuildStatsContainer>> getStats(String sessionIdentifier, long guildId) {
-        return sessionService.retrieveGuild(sessionIdentifier, guildId).mapNotNull(guildContainerOptional -> {
+        return sessionService.retrieveGuild(sessionIdentifier, guildId).flatMap(guildContainerOptional -> {
             if (guildContainerOptional.isEmpty()) {
-                return Optional.empty();
+                return Mono.just(Optional.<GuildStatsContainer>empty());
             }
 
-            return Mono.zip(SQLSession.getSqlConnector().getSqlWorker().getInvites(guildId), SQLSession.getSqlConnector().getSqlWorker().getStats(guildId))
-                    .map(tuple2 -> Optional.of(new GuildStatsContainer(tuple2.getT1().size(), tuple2.getT2().stream().map(CommandStatsContainer::new).toList()))).block();
+            return statsService.retrieveStats(guildId).map(Optional::of);
         });
     }
 
     public Mono<Optional<List<CommandStatsContainer>>> getCommandStats(String sessionIdentifier, long guildId) {
-        return sessionService.retrieveGuild(sessionIdentifier, guildId).publishOn(Schedulers.boundedElastic()).mapNotNull(guildContainerOptional -> {
+        return sessionService.retrieveGuild(sessionIdentifier, guildId).flatMap(guildContainerOptional -> {
             if (guildContainerOptional.isEmpty()) {
-                return Optional.empty();
+                return Mono.just(Optional.<List<CommandStatsContainer>>empty());
             }
 
-            return SQLSession.getSqlConnector().getSqlWorker().getStats(guildId)
-                    .map(list -> Optional.of(list.stream().map(CommandStatsContainer::new).toList())).block();
+            return statsService.retrieveStats(guildId).map(stats -> Optional.of(stats.getCommandStats()));
         });
     }
 
     public Mono<Integer> getInviteCount(String sessionIdentifier, long guildId) {
-        return sessionService.retrieveGuild(sessionIdentifier, guildId).publishOn(Schedulers.boundedElastic()).mapNotNull(guildContainerOptional -> {
+        return sessionService.retrieveGuild(sessionIdentifier, guildId).flatMap(guildContainerOptional -> {
             if (guildContainerOptional.isEmpty()) {
-                return 0;
+                return Mono.just(0);
+            }
+
+            return statsService.retrieveStats(guildId).map(stats -> (int) stats.getInvites());
+        });
+    }
+
+    //endregion
+
+    //region Dashboard
+
+    /**
+     * Get the configuration of all modules of a Guild at once.
+     * The Guild is resolved once with Channels and Roles, every module is then loaded in parallel.
+     * Modules that fail or take longer than the configured timeout are left out and listed as failed.
+     *
+     * @param sessionIdentifier the Session Identifier.
+     * @param guildId           the Guild ID.
+     * @return the Dashboard Container.
+     */
+    public Mono<Optional<DashboardContainer>> getDashboard(String sessionIdentifier, long guildId) {
+        // Resolve the Guild first, so that every module below is served by the same lookup.
+        Mono<Optional<GuildContainer>> guildMono = sessionService.retrieveGuild(sessionIdentifier, guildId, true, true);
+
+        DashboardContainer dashboardContainer = new DashboardContainer();
+
+        Mono<Void> sections = Mono.when(
+                dashboardSection(dashboardContainer, "log", getLogChannel(sessionIdentifier, guildId), dashboardContainer::setLogChannel),
+                dashboardSection(dashboardContainer, "welcome", getWelcomeChannel(sessionIdentifier, guildId), dashboardContainer::setWelcomeChannel),
+                dashboardSection(dashboardContainer, "ticket", getTicket(sessionIdentifier, guildId), dashboardContainer::setTicket),
+                dashboardSection(dashboardContainer, "suggestion", getSuggestion(sessionIdentifier, guildId), dashboardContainer::setSuggestionChannel),
+                dashboardSection(dashboardContainer, "temporalVoice", getTemporalVoice(sessionIdentifier, guildId), dashboardContainer::setTemporalVoice),
+                dashboardSection(dashboardContainer, "autoRoles", guildMono.map(guildOptional -> guildOptional.map(guildContainer ->
+                        SQLSession.getSqlConnector().getSqlWorker().getAutoRoles(guildId).map(autoRoles -> autoRoles.stream()
+                                .map(autoRole -> guildContainer.getRoleById(autoRole.getRoleId())).filter(Objects::nonNull).toList()).block())),
+                        dashboardContainer::setAutoRoles),
+                dashboardSection(dashboardContainer, "chatAutoRoles", getChatAutoRoles(sessionIdentifier, guildId), dashboardContainer::setChatAutoRoles),
+                dashboardSection(dashboardContainer, "voiceAutoRoles", getVoiceAutoRoles(sessionIdentifier, guildId), dashboardContainer::setVoiceAutoRoles),
+                dashboardSection(dashboardContainer, "settings", SQLSession.getSqlConnector().getSqlWorker().getAllSettings(guildId, true).map(Optional::ofNullable),
+                        dashboardContainer::setSettings));
+
+        return guildMono.flatMap(guildOptional -> {
+            if (guildOptional.isEmpty()) {
+                return Mono.just(Optional.<DashboardContainer>empty());
             }
 
-            return SQLSession.getSqlConnector().getSqlWorker().getInvites(guildId)
-                    .map(List::size).block();
+            dashboardContainer.setGuild(guildOptional.get());
+            return sections.thenReturn(Optional.of(dashboardContainer));
         });
     }
 
+    /**
+     * Load a section of the Dashboard with a timeout.
+     *
+     * @param dashboardContainer the Dashboard Container.
+     * @param name               the name of the section.
+     * @param section            the {@link Mono} loading the section.
+     * @param setter             the setter used to store the section.
+     * @param <T>                the type of the section.
+     * @return a {@link Mono} completing once the section has been loaded, failed or timed out.
+     */
+    private <T> Mono<Void> dashboardSection(DashboardContainer dashboardContainer, String name, Mono<Optional<T>> section, Consumer<T> setter) {
+        return section.subscribeOn(Schedulers.boundedElastic())
+                .timeout(Data.getDashboardSectionTimeout())
+                .doOnNext(value -> value.ifPresent(setter))
+                .onErrorResume(throwable -> {
+                    log.warn("Could not load the Dashboard section {}: {}", name, throwable.getMessage());
+                    dashboardContainer.getFailedSections().add(name);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
     //endregion
 
     //region Log channel
@@ -124,11 +215,15 @@ public class GuildService {
             Guild guild = guildContainer.getGuild();
             StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, channelId);
 
-            net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-Log").complete();
+            if (channel == null) {
+                return false;
+            }
+
+            WebhookPoolService.PooledWebhook newWebhook = webhookPoolService.acquire(channel);
 
             deleteLogChannel(guild).block();
 
-            SQLSession.getSqlConnector().getSqlWorker().setLogWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken());
+            SQLSession.getSqlConnector().getSqlWorker().setLogWebhook(guildId, channel.getIdLong(), newWebhook.webhookId(), newWebhook.token());
 
             return true;
         });
@@ -153,9 +248,7 @@ public class GuildService {
             }
 
             WebhookLog webhook = webhookLogOptional.get();
-            guild.retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                    .filter(entry -> entry.getIdLong() == webhook.getWebhookId() && entry.getToken().equalsIgnoreCase(webhook.getToken()))
-                    .forEach(entry -> entry.delete().queue()));
+            webhookPoolService.release(guild, webhook.getWebhookId());
 
             return SQLSession.getSqlConnector().getSqlWorker().deleteEntity(webhook).thenReturn(webhookLogOptional).block();
         });
@@ -210,11 +303,15 @@ public class GuildService {
             Guild guild = guildContainer.getGuild();
             StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, channelId);
 
-            net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-Welcome").complete();
+            if (channel == null) {
+                return false;
+            }
+
+            WebhookPoolService.PooledWebhook newWebhook = webhookPoolService.acquire(channel);
 
             deleteWelcomeChannel(guild).block();
 
-            SQLSession.getSqlConnector().getSqlWorker().setWelcomeWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken());
+            SQLSession.getSqlConnector().getSqlWorker().setWelcomeWebhook(guildId, channel.getIdLong(), newWebhook.webhookId(), newWebhook.token());
 
             return true;
         });
@@ -239,9 +336,7 @@ public class GuildService {
             }
 
             WebhookWelcome webhook = webhookLogOptional.get();
-            guild.retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                    .filter(entry -> entry.getIdLong() == webhook.getWebhookId() && entry.getToken().equalsIgnoreCase(webhook.getToken()))
-                    .forEach(entry -> entry.delete().queue()));
+            webhookPoolService.release(guild, webhook.getWebhookId());
 
             return SQLSession.getSqlConnector().getSqlWorker().deleteEntity(webhook).thenReturn(webhookLogOptional).block();
         });
@@ -254,15 +349,15 @@ public class GuildService {
     //region Reddit Notifications
 
     public Mono<List<NotifierContainer>> getRedditNotifier(String sessionIdentifier, long guildId) {
-        return getNotifier(sessionIdentifier, guildId, 1);
+        return getNotifier(sessionIdentifier, guildId, NotifierType.REDDIT);
     }
 
     public Mono<Boolean> addRedditNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest) {
-        return addNotifier(sessionIdentifier, guildId, notifierRequest, 1);
+        return addNotifier(sessionIdentifier, guildId, notifierRequest, NotifierType.REDDIT);
     }
 
     public Mono<Boolean> removeRedditNotifier(String sessionIdentifier, long guildId, String subreddit) {
-        return removeNotifier(sessionIdentifier, guildId, subreddit, 1);
+        return removeNotifier(sessionIdentifier, guildId, subreddit, NotifierType.REDDIT);
     }
 
     //endregion
@@ -270,15 +365,15 @@ public class GuildService {
     //region Twitch Notifications
 
     public Mono<List<NotifierContainer>> getTwitchNotifier(String sessionIdentifier, long guildId) {
-        return getNotifier(sessionIdentifier, guildId, 2);
+        return getNotifier(sessionIdentifier, guildId, NotifierType.TWITCH);
     }
 
     public Mono<Boolean> addTwitchNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest) {
-        return addNotifier(sessionIdentifier, guildId, notifierRequest, 2);
+        return addNotifier(sessionIdentifier, guildId, notifierRequest, NotifierType.TWITCH);
     }
 
     public Mono<Boolean> removeTwitchNotifier(String sessionIdentifier, long guildId, String channelId) {
-        return removeNotifier(sessionIdentifier, guildId, channelId, 2);
+        return removeNotifier(sessionIdentifier, guildId, channelId, NotifierType.TWITCH);
     }
 
     //endregion
@@ -286,15 +381,15 @@ public class GuildService {
     //region YouTube Notifications
 
     public Mono<List<NotifierContainer>> getYouTubeNotifier(String sessionIdentifier, long guildId) {
-        return getNotifier(sessionIdentifier, guildId, 0);
+        return getNotifier(sessionIdentifier, guildId, NotifierType.YOUTUBE);
     }
 
     public Mono<Boolean> addYouTubeNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest) {
-        return addNotifier(sessionIdentifier, guildId, notifierRequest, 0);
+        return addNotifier(sessionIdentifier, guildId, notifierRequest, NotifierType.YOUTUBE);
     }
 
     public Mono<Boolean> removeYouTubeNotifier(String sessionIdentifier, long guildId, String channelId) {
-        return removeNotifier(sessionIdentifier, guildId, channelId, 0);
+        return removeNotifier(sessionIdentifier, guildId, channelId, NotifierType.YOUTUBE);
     }
 
     //endregion
@@ -302,15 +397,15 @@ public class GuildService {
     //region Twitter Notifications
 
     public Mono<List<NotifierContainer>> getTwitterNotifier(String sessionIdentifier, long guildId) {
-        return getNotifier(sessionIdentifier, guildId, 3);
+        return getNotifier(sessionIdentifier, guildId, NotifierType.TWITTER);
     }
 
     public Mono<Boolean> addTwitterNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest) {
-        return addNotifier(sessionIdentifier, guildId, notifierRequest, 3);
+        return addNotifier(sessionIdentifier, guildId, notifierRequest, NotifierType.TWITTER);
     }
 
     public Mono<Boolean> removeTwitterNotifier(String sessionIdentifier, long guildId, String name) {
-        return removeNotifier(sessionIdentifier, guildId, name, 3);
+        return removeNotifier(sessionIdentifier, guildId, name, NotifierType.TWITTER);
     }
 
     //endregion
@@ -318,28 +413,28 @@ public class GuildService {
     //region Instagram Notifications
 
     public Mono<List<NotifierContainer>> getInstagramNotifier(String sessionIdentifier, long guildId) {
-        return getNotifier(sessionIdentifier, guildId, 4);
+        return getNotifier(sessionIdentifier, guildId, NotifierType.INSTAGRAM);
     }
 
     public Mono<Boolean> addInstagramNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest) {
-        return addNotifier(sessionIdentifier, guildId, notifierRequest, 4);
+        return addNotifier(sessionIdentifier, guildId, notifierRequest, NotifierType.INSTAGRAM);
     }
 
     public Mono<Boolean> removeInstagramNotifier(String sessionIdentifier, long guildId, String name) {
-        return removeNotifier(sessionIdentifier, guildId, name, 4);
+        return removeNotifier(sessionIdentifier, guildId, name, NotifierType.INSTAGRAM);
     }
 
     //region General
 
     /**
-     * Get the notifier based on the typ.
+     * Get the notifier based on the type.
      *
      * @param sessionIdentifier the Session Identifier.
      * @param guildId           the Guild ID.
-     * @param type              the typ. 0 -> YT, 1 -> Reddit, 2 -> Twitch, 3 -> Twitter, 4 -> Instagram
+     * @param type              the type of the notifier.
      * @return a list of the given notifier.
      */
-    public Mono<List<NotifierContainer>> getNotifier(String sessionIdentifier, long guildId, int type) {
+    public Mono<List<NotifierContainer>> getNotifier(String sessionIdentifier, long guildId, NotifierType type) {
         return sessionService.retrieveGuild(sessionIdentifier, guildId)
                 .publishOn(Schedulers.boundedElastic())
                 .mapNotNull(x -> {
@@ -347,62 +442,52 @@ public class GuildService {
                         return Collections.emptyList();
                     }
 
-                    GuildContainer guildContainer = x.get();
+                    return type.retrieve(x.get().getGuild(), webhookService).block();
+                });
+    }
 
-                    switch (type) {
-                        case 1 -> {
-                            return SQLSession.getSqlConnector().getSqlWorker().getAllRedditWebhooks(guildId)
-                                    .map(webhooks -> webhooks.stream()
-                                            .map(hooks -> new NotifierContainer(hooks.getSubreddit(), hooks.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                                                    .complete().stream().filter(c -> c.getIdLong() == hooks.getGuild()).map(ChannelContainer::new).findFirst().orElse(null))).toList())
-                                    .block();
-                        }
+    /**
+     * Get the notifiers of all types, loaded in parallel.
+     *
+     * @param sessionIdentifier the Session Identifier.
+     * @param guildId           the Guild ID.
+     * @return the notifiers, mapped by the name of their type.
+     */
+    @SuppressWarnings("unchecked")
+    public Mono<Optional<Map<String, List<NotifierContainer>>>> getAllNotifiers(String sessionIdentifier, long guildId) {
+        return sessionService.retrieveGuild(sessionIdentifier, guildId).flatMap(x -> {
+            if (x.isEmpty()) {
+                return Mono.just(Optional.<Map<String, List<NotifierContainer>>>empty());
+            }
 
-                        case 2 -> {
-                            return SQLSession.getSqlConnector().getSqlWorker().getAllTwitchWebhooks(guildId)
-                                    .map(webhooks -> webhooks.stream()
-                                            .map(hooks -> new NotifierContainer(hooks.getName(), hooks.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                                                    .complete().stream().filter(c -> c.getIdLong() == hooks.getGuild()).map(ChannelContainer::new).findFirst().orElse(null))).toList())
-                                    .block();
-                        }
+            Guild guild = x.get().getGuild();
 
-                        case 3 -> {
-                            return SQLSession.getSqlConnector().getSqlWorker().getAllTwitterWebhooks(guildId)
-                                    .map(webhooks -> webhooks.stream()
-                                            .map(hooks -> new NotifierContainer(hooks.getName(), hooks.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                                                    .complete().stream().filter(c -> c.getIdLong() == hooks.getGuild()).map(ChannelContainer::new).findFirst().orElse(null))).toList())
-                                    .block();
-                        }
+            List<Mono<List<NotifierContainer>>> notifiers = Arrays.stream(NotifierType.values())
+                    .map(type -> type.retrieve(guild, webhookService).subscribeOn(Schedulers.boundedElastic()))
+                    .toList();
 
-                        case 4 -> {
-                            return SQLSession.getSqlConnector().getSqlWorker().getAllInstagramWebhooks(guildId)
-                                    .map(webhooks -> webhooks.stream()
-                                            .map(hooks -> new NotifierContainer(hooks.getName(), hooks.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                                                    .complete().stream().filter(c -> c.getIdLong() == hooks.getGuild()).map(ChannelContainer::new).findFirst().orElse(null))).toList())
-                                    .block();
-                        }
+            return Mono.zip(notifiers, results -> {
+                Map<String, List<NotifierContainer>> notifierMap = new LinkedHashMap<>();
 
-                        default -> {
-                            return SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeWebhooks(guildId)
-                                    .map(webhooks -> webhooks.stream()
-                                            .map(hooks -> new NotifierContainer(hooks.getName(), hooks.getMessage(), guildContainer.getGuild().retrieveWebhooks()
-                                                    .complete().stream().filter(c -> c.getIdLong() == hooks.getGuild()).map(ChannelContainer::new).findFirst().orElse(null))).toList())
-                                    .block();
-                        }
+                for (int i = 0; i < results.length; i++) {
+                    notifierMap.put(NotifierType.values()[i].getName(), (List<NotifierContainer>) results[i]);
+                }
 
-                    }
-                });
+                return Optional.of(notifierMap);
+            });
+        });
     }
 
     /**
-     * Get the notifier based on the typ.
+     * Add a notifier based on the type.
      *
      * @param sessionIdentifier the Session Identifier.
      * @param guildId           the Guild ID.
-     * @param type              the typ. 0 -> YT, 1 -> Reddit, 2 -> Twitch, 3 -> Twitter, 4 -> Instagram
-     * @return a list of the given notifier.
+     * @param notifierRequest   the notifier to add.
+     * @param type              the type of the notifier.
+     * @return if the notifier has been added.
      */
-    public Mono<Boolean> addNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest, int type) {
+    public Mono<Boolean> addNotifier(String sessionIdentifier, long guildId, GenericNotifierRequest notifierRequest, NotifierType type) {
         return sessionService.retrieveGuild(sessionIdentifier, guildId, true)
                 .publishOn(Schedulers.boundedElastic())
                 .mapNotNull(x -> {
@@ -419,55 +504,24 @@ public class GuildService {
                         return false;
                     }
 
-                    String suffix;
-
-                    switch (type) {
-                        case 1 -> suffix = "RedditNotifier";
-                        case 2 -> suffix = "TwitterNotifier";
-                        case 3 -> suffix = "TwitchNotifier";
-                        case 4 -> suffix = "InstagramNotifier";
-                        default -> suffix = "YoutubeNotifier";
-                    }
-
-                    net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ree6-" + suffix + "-" + notifierRequest.name()).complete();
-
-
-                    switch (type) {
-                        case 1 ->
-                                SQLSession.getSqlConnector().getSqlWorker().addRedditWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken(),
-                                        notifierRequest.name(), notifierRequest.message());
+                    WebhookPoolService.PooledWebhook newWebhook = webhookPoolService.acquire(channel);
 
-                        case 2 ->
-                                SQLSession.getSqlConnector().getSqlWorker().addTwitchWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken(),
-                                        notifierRequest.name(), notifierRequest.message());
-
-                        case 3 ->
-                                SQLSession.getSqlConnector().getSqlWorker().addTwitterWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken(),
-                                        notifierRequest.name(), notifierRequest.message());
-
-                        case 4 ->
-                                SQLSession.getSqlConnector().getSqlWorker().addInstagramWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken(),
-                                        notifierRequest.name(), notifierRequest.message());
-
-                        default ->
-                                SQLSession.getSqlConnector().getSqlWorker().addYouTubeWebhook(guildId, channel.getIdLong(), newWebhook.getIdLong(), newWebhook.getToken(),
-                                        notifierRequest.name(), notifierRequest.message());
-
-                    }
+                    type.add(guildId, channel.getIdLong(), newWebhook.webhookId(), newWebhook.token(), notifierRequest.name(), notifierRequest.message());
 
                     return true;
                 });
     }
 
     /**
-     * Get the notifier based on the typ.
+     * Remove a notifier based on the type.
      *
      * @param sessionIdentifier the Session Identifier.
      * @param guildId           the Guild ID.
-     * @param type              the typ. 0 -> YT, 1 -> Reddit, 2 -> Twitch, 3 -> Twitter, 4 -> Instagram
-     * @return a list of the given notifier.
+     * @param name              the name of the notified entity.
+     * @param type              the type of the notifier.
+     * @return if the notifier has been removed.
      */
-    public Mono<Boolean> removeNotifier(String sessionIdentifier, long guildId, String name, int type) {
+    public Mono<Boolean> removeNotifier(String sessionIdentifier, long guildId, String name, NotifierType type) {
         return sessionService.retrieveGuild(sessionIdentifier, guildId, true)
                 .publishOn(Schedulers.boundedElastic())
                 .mapNotNull(x -> {
@@ -475,18 +529,10 @@ public class GuildService {
                         return false;
                     }
 
-                    switch (type) {
-                        case 1 -> SQLSession.getSqlConnector().getSqlWorker().removeInstagramWebhook(guildId, name);
-
-                        case 2 -> SQLSession.getSqlConnector().getSqlWorker().removeTwitchWebhook(guildId, name);
-
-                        case 3 -> SQLSession.getSqlConnector().getSqlWorker().removeTwitterWebhook(guildId, name);
+                    type.find(guildId, name).block()
+                            .ifPresent(webhook -> webhookPoolService.release(x.get().getGuild(), webhook.getWebhookId()));
 
-                        case 4 -> SQLSession.getSqlConnector().getSqlWorker().removeInstagramWebhook(guildId, name);
-
-                        default -> SQLSession.getSqlConnector().getSqlWorker().removeYouTubeWebhook(guildId, name);
-
-                    }
+                    type.remove(guildId, name);
 
                     return true;
                 });
@@ -596,70 +642,83 @@ public class GuildService {
 
     //region Recording
 
-    public Mono<Optional<Recording>> getRecording(String sessionIdentifier, String recordId) {
-        Recording errorReturnValue = null;
-        return sessionService.retrieveSession(sessionIdentifier).publishOn(Schedulers.boundedElastic()).mapNotNull(x -> {
-            if (x.isEmpty()) {
-                return Optional.ofNullable(errorReturnValue);
+    public Mono<Optional<RecordingService.RecordingMetadata>> getRecording(String sessionIdentifier, String recordId) {
+        return sessionService.retrieveSession(sessionIdentifier).flatMap(sessionOptional -> {
+            if (sessionOptional.isEmpty()) {
+                return Mono.just(Optional.<RecordingService.RecordingMetadata>empty());
             }
 
-            SessionContainer sessionContainer = x.get();
+            long userId = sessionOptional.get().getUser().getId();
 
-            return sessionService.retrieveGuilds(sessionIdentifier, false).publishOn(Schedulers.boundedElastic()).mapNotNull(y -> {
-                if (y.isEmpty()) {
-                    return Optional.ofNullable(errorReturnValue);
-                }
+            return Mono.fromSupplier(() -> recordingService.isParticipant(recordId, userId)).subscribeOn(Schedulers.boundedElastic()).flatMap(participant -> {
+                if (participant.isPresent()) {
+                    if (!participant.get()) {
+                        log.warn("User {} tried accessing a recording he is not part of.", userId);
+                        return Mono.just(Optional.<RecordingService.RecordingMetadata>empty());
+                    }
 
-                List<GuildContainer> guilds = y.get();
+                    return Mono.fromSupplier(() -> recordingService.retrieveMetadata(recordId)).subscribeOn(Schedulers.boundedElastic());
+                }
 
-                return SQLSession.getSqlConnector().getSqlWorker().getEntity(new Recording(), "FROM Recording WHERE identifier=:id",
-                        Map.of("id", recordId)).map(recordingOptional -> {
-                    if (recordingOptional.isEmpty()) {
-                        return Optional.ofNullable(errorReturnValue);
+                // Recordings that haven't been indexed yet are checked against the Guilds of the User.
+                return sessionService.retrieveGuilds(sessionIdentifier, false).publishOn(Schedulers.boundedElastic()).map(guildsOptional -> {
+                    if (guildsOptional.isEmpty()) {
+                        return Optional.<RecordingService.RecordingMetadata>empty();
                     }
 
-                    Recording recording = recordingOptional.get();
+                    List<GuildContainer> guilds = guildsOptional.get();
 
-                    if (guilds.stream().anyMatch(g -> g.getId() == recording.getGuildId())) {
-                        boolean found = false;
+                    return recordingService.retrieveMetadata(recordId).filter(recording -> {
+                        recordingService.index(recording);
 
-                        for (JsonElement element : recording.getJsonArray()) {
-                            if (element.isJsonPrimitive()) {
-                                JsonPrimitive primitive = element.getAsJsonPrimitive();
-                                if (primitive.isString() && primitive.getAsString().equalsIgnoreCase(String.valueOf(sessionContainer.getUser().getId()))) {
-                                    found = true;
-                                    break;
+                        if (guilds.stream().anyMatch(g -> g.getId() == recording.guildId())) {
+                            for (JsonElement element : recording.participants()) {
+                                if (element.isJsonPrimitive()) {
+                                    JsonPrimitive primitive = element.getAsJsonPrimitive();
+                                    if (primitive.isString() && primitive.getAsString().equalsIgnoreCase(String.valueOf(userId))) {
+                                        return true;
+                                    }
                                 }
                             }
                         }
 
-                        if (found) {
-                            return recordingOptional;
-                        } else {
-                            log.warn("User {} tried accessing a recording he is not part of.", sessionContainer.getUser().getId());
-                            return Optional.ofNullable(errorReturnValue);
-                        }
-                    } else {
-                        log.warn("User {} tried accessing a recording he is not part of.", sessionContainer.getUser().getId());
-                        return Optional.ofNullable(errorReturnValue);
-                    }
-                }).block();
-            }).block();
+                        log.warn("User {} tried accessing a recording he is not part of.", userId);
+                        return false;
+                    });
+                });
+            });
         });
     }
 
+    public Mono<Optional<List<RecordContainer>>> getRecordings(String sessionIdentifier) {
+        return sessionService.retrieveSession(sessionIdentifier).publishOn(Schedulers.boundedElastic()).map(sessionOptional ->
+                sessionOptional.map(sessionContainer -> createRecordContainers(recordingService.retrieveRecordings(sessionContainer.getUser().getId()))));
+    }
+
     public Mono<Optional<RecordContainer>> getRecordingContainer(String sessionIdentifier, String recordId) {
-        return getRecording(sessionIdentifier, recordId).map(x -> x.map(RecordContainer::new));
+        return getRecording(sessionIdentifier, recordId).publishOn(Schedulers.boundedElastic())
+                .map(x -> x.map(recording -> createRecordContainers(List.of(recording)).get(0)));
     }
 
-    public Mono<Optional<byte[]>> getRecordingBytes(String sessionIdentifier, String recordId) {
-        return getRecording(sessionIdentifier, recordId).publishOn(Schedulers.boundedElastic()).mapNotNull(x -> {
-            if (x.isEmpty()) {
-                return Optional.empty();
-            }
+    /**
+     * Create the containers of Recordings, resolving their creators in one batch per Guild.
+     *
+     * @param recordings the Recordings.
+     * @return the containers, in the order of the Recordings.
+     */
+    private List<RecordContainer> createRecordContainers(List<RecordingService.RecordingMetadata> recordings) {
+        Map<Long, UserContainer> creators = new HashMap<>();
 
-            return SQLSession.getSqlConnector().getSqlWorker().deleteEntity(x.get()).thenReturn(Optional.ofNullable(x.get().getRecording())).block();
-        });
+        recordings.stream().collect(Collectors.groupingBy(RecordingService.RecordingMetadata::guildId,
+                        Collectors.mapping(RecordingService.RecordingMetadata::creatorId, Collectors.toList())))
+                .forEach((guildId, creatorIds) -> creators.putAll(userService.retrieveUsers(guildId, creatorIds)));
+
+        return recordings.stream().map(recording -> new RecordContainer(recording, creators.get(recording.creatorId()))).toList();
+    }
+
+    public Mono<Optional<Resource>> getRecordingResource(String sessionIdentifier, String recordId, boolean compressed) {
+        return getRecording(sessionIdentifier, recordId).publishOn(Schedulers.boundedElastic())
+                .map(x -> x.map(recording -> recordingService.openRecording(recording.identifier(), compressed)));
     }
 
     //endregion
@@ -868,14 +927,14 @@ public class GuildService {
                                 if (logChannelId != 0) {
                                     StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, logChannelId);
 
-                                    Tickets finalTickets = tickets;
-                                    guild.retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                                            .filter(entry -> entry.getIdLong() == finalTickets.getLogChannelId() && entry.getToken().equalsIgnoreCase(finalTickets.getLogChannelWebhookToken()))
-                                            .forEach(entry -> entry.delete().queue()));
+                                    if (channel == null)
+                                        return false;
+
+                                    WebhookPoolService.PooledWebhook newWebhook = webhookPoolService.acquire(channel);
+                                    webhookPoolService.release(guild, tickets.getLogChannelWebhookId());
 
-                                    net.dv8tion.jda.api.entities.Webhook newWebhook = channel.createWebhook("Ticket-Log").complete();
-                                    tickets.setLogChannelWebhookToken(newWebhook.getToken());
-                                    tickets.setLogChannelWebhookId(newWebhook.getIdLong());
+                                    tickets.setLogChannelWebhookToken(newWebhook.token());
+                                    tickets.setLogChannelWebhookId(newWebhook.webhookId());
                                     tickets.setLogChannelId(channel.getIdLong());
                                 }
 
@@ -905,9 +964,7 @@ public class GuildService {
 
                                 Tickets tickets = ticketOptional.get();
 
-                                guildContainer.getGuild().retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                                        .filter(entry -> entry.getIdLong() == tickets.getLogChannelId() && entry.getToken().equalsIgnoreCase(tickets.getLogChannelWebhookToken()))
-                                        .forEach(entry -> entry.delete().queue()));
+                                webhookPoolService.release(guildContainer.getGuild(), tickets.getLogChannelWebhookId());
 
                                 return SQLSession.getSqlConnector().getSqlWorker().deleteEntity(tickets).thenReturn(true).block();
                             })
@@ -989,9 +1046,7 @@ public class GuildService {
 
                                 Tickets tickets = ticketOptional.get();
 
-                                guildContainer.getGuild().retrieveWebhooks().queue(c -> c.stream().filter(entry -> entry.getToken() != null)
-                                        .filter(entry -> entry.getIdLong() == tickets.getLogChannelId() && entry.getToken().equalsIgnoreCase(tickets.getLogChannelWebhookToken()))
-                                        .forEach(entry -> entry.delete().queue()));
+                                webhookPoolService.release(guildContainer.getGuild(), tickets.getLogChannelWebhookId());
 
                                 return SQLSession.getSqlConnector().getSqlWorker().deleteEntity(tickets).thenReturn(true).block();
                             }).block();
@@ -1015,8 +1070,10 @@ public class GuildService {
                     return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Warning(),
                                     "FROM Warning WHERE guildUserId.guildId = :gid",
                                     Map.of("gid", guildId))
-                            .map(warnings -> warnings.stream()
-                                    .map(c -> new WarningContainer(c, new UserContainer(guildContainer.getGuild().retrieveMemberById(c.getUserId()).complete()))).toList())
+                            .map(warnings -> {
+                                Map<Long, UserContainer> users = userService.retrieveUsers(guildContainer.getGuild(), warnings.stream().map(Warning::getUserId).toList());
+                                return warnings.stream().map(c -> new WarningContainer(c, users.get(c.getUserId()))).toList();
+                            })
                             .block();
                 });
     }
@@ -1102,21 +1159,14 @@ public class GuildService {
                 });
     }
 
-    public Mono<Boolean> clearWarnings(String sessionIdentifier, long guildId) {
+    public Mono<Optional<Integer>> clearWarnings(String sessionIdentifier, long guildId) {
         return sessionService.retrieveGuild(sessionIdentifier, guildId, false, false)
-                .publishOn(Schedulers.boundedElastic())
-                .mapNotNull(guildContainerOptional -> {
+                .flatMap(guildContainerOptional -> {
                     if (guildContainerOptional.isEmpty()) {
-                        return false;
+                        return Mono.just(Optional.<Integer>empty());
                     }
 
-                    return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Warning(),
-                            "FROM Warning WHERE guildUserId.guildId = :gid",
-                            Map.of("gid", guildId)).map(warnings -> {
-                        warnings.forEach(warning ->
-                                SQLSession.getSqlConnector().getSqlWorker().deleteEntity(warning).block());
-                        return true;
-                    }).block();
+                    return bulkDeleteService.deleteByGuild(Warning.class, "guildUserId.guildId", guildId).map(Optional::of);
                 });
     }
 
@@ -1139,20 +1189,14 @@ public class GuildService {
                 });
     }
 
-    public Mono<Boolean> clearPunishments(String sessionIdentifier, long guildId) {
+    public Mono<Optional<Integer>> clearPunishments(String sessionIdentifier, long guildId) {
         return sessionService.retrieveGuild(sessionIdentifier, guildId, false, false)
-                .publishOn(Schedulers.boundedElastic())
-                .mapNotNull(guildContainerOptional -> {
+                .flatMap(guildContainerOptional -> {
                     if (guildContainerOptional.isEmpty()) {
-                        return false;
+                        return Mono.just(Optional.<Integer>empty());
                     }
 
-                    return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new Punishments(),
-                            "FROM Punishments WHERE guildAndId.guildId = :gid",
-                            Map.of("gid", guildId)).map(x -> {
-                        x.forEach(punishment -> SQLSession.getSqlConnector().getSqlWorker().deleteEntity(punishment).block());
-                        return true;
-                    }).block();
+                    return bulkDeleteService.deleteByGuild(Punishments.class, "guildAndId.guildId", guildId).map(Optional::of);
                 });
     }
 
@@ -1334,10 +1378,9 @@ public class GuildService {
 
     public Mono<List<MessageReactionRoleContainer>> retrieveReactionRoles(String sessionIdentifier, long guildId) {
         return sessionService.retrieveGuild(sessionIdentifier, guildId, true, true)
-                .publishOn(Schedulers.boundedElastic())
-                .mapNotNull(guildContainerOptional -> {
+                .flatMap(guildContainerOptional -> {
                     if (guildContainerOptional.isEmpty()) {
-                        return Collections.emptyList();
+                        return Mono.just(Collections.<MessageReactionRoleContainer>emptyList());
                     }
 
                     GuildContainer guildContainer = guildContainerOptional.get();
@@ -1347,29 +1390,31 @@ public class GuildService {
                     return SQLSession.getSqlConnector().getSqlWorker().getEntityList(new ReactionRole(),
                                     "FROM ReactionRole WHERE guildUserId.guildId = :gid",
                                     Map.of("gid", guildId))
-                            .map(roles -> {
+                            .flatMap(roles -> {
                                 Map<Long, List<ReactionRole>> map = roles.stream().collect(Collectors.groupingBy(ReactionRole::getMessageId));
 
-                                List<MessageReactionRoleContainer> messageReactionRoleContainers = new ArrayList<>();
+                                Map<Long, Long> messageChannels = new HashMap<>();
                                 map.forEach((key, value) -> {
-                                    if (value.isEmpty()) return;
-
-                                    StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, value.get(0).getChannelId());
+                                    if (!value.isEmpty()) messageChannels.put(key, value.get(0).getChannelId());
+                                });
 
-                                    if (channel == null) return;
+                                return messageService.retrieveMessages(guild, messageChannels).map(messages -> {
+                                    List<MessageReactionRoleContainer> messageReactionRoleContainers = new ArrayList<>();
+                                    map.forEach((key, value) -> {
+                                        MessageContainer message = messages.get(key);
 
-                                    Message message = channel.retrieveMessageById(key).complete();
+                                        if (message == null) return;
 
-                                    MessageReactionRoleContainer messageReactionRoleContainer = new MessageReactionRoleContainer();
-                                    messageReactionRoleContainer.setRoleReactions(value.stream()
-                                            .map(role -> new ReactionRoleContainer(role, guildContainer))
-                                            .toList());
-                                    messageReactionRoleContainer.setMessage(new MessageContainer(message));
-                                    messageReactionRoleContainers.add(messageReactionRoleContainer);
+                                        MessageReactionRoleContainer messageReactionRoleContainer = new MessageReactionRoleContainer();
+                                        messageReactionRoleContainer.setRoleReactions(value.stream()
+                                                .map(role -> new ReactionRoleContainer(role, guildContainer))
+                                                .toList());
+                                        messageReactionRoleContainer.setMessage(message);
+                                        messageReactionRoleContainers.add(messageReactionRoleContainer);
+                                    });
+                                    return messageReactionRoleContainers;
                                 });
-                                return messageReactionRoleContainers;
-                            })
-                            .block();
+                            });
                 });
     }
 
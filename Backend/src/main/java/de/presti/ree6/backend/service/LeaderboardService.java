@@ -0,0 +1,351 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.utils.RankTree;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.LeaderboardType;
+import de.presti.ree6.backend.utils.data.container.LeaderboardContainer;
+import de.presti.ree6.backend.utils.data.container.LeaderboardRankContainer;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.level.ChatUserLevel;
+import de.presti.ree6.sql.entities.level.UserLevel;
+import de.presti.ree6.sql.entities.level.VoiceUserLevel;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Service meant to serve the public Leaderboards.
+ * The first page is served from snapshots, which are refreshed in the background, every other page is queried on demand.
+ * Ranks and page offsets are read from per-Guild rank trees, which are built on first use and updated incrementally.
+ */
+@Slf4j
+@Service
+public class LeaderboardService {
+
+    /**
+     * The maximum amount of entries of a single Leaderboard page.
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * User Service used to resolve the Users of the Leaderboards.
+     */
+    private final UserService userService;
+
+    /**
+     * The shared Entity Manager, used to query the pages and ranks.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * The Leaderboard snapshots, keyed by the Guild and the type.
+     * Only Guilds the bot is in have a public Leaderboard, the IDs of any other Guild are never cached.
+     */
+    private final LoadingCache<LeaderboardKey, LeaderboardSnapshot> snapshots = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .refreshAfterWrite(Data.getLeaderboardRefresh())
+            .expireAfterAccess(Duration.ofHours(1))
+            .executor(runnable -> Schedulers.boundedElastic().schedule(runnable))
+            .build(this::loadSnapshot);
+
+    /**
+     * The rank trees of the Leaderboards, keyed by the Guild and the type.
+     * Bounded by the amount of ranked Users over all trees, refreshes only apply the entries which changed.
+     */
+    private final LoadingCache<LeaderboardKey, RankTree> rankTrees = Caffeine.newBuilder()
+            .maximumWeight(Data.getLeaderboardCacheMaxEntries())
+            .<LeaderboardKey, RankTree>weigher((key, rankTree) -> Math.max(1, rankTree.size()))
+            .refreshAfterWrite(Data.getLeaderboardRefresh())
+            .expireAfterAccess(Duration.ofHours(1))
+            .executor(runnable -> Schedulers.boundedElastic().schedule(runnable))
+            .build(new CacheLoader<>() {
+                @Override
+                public RankTree load(LeaderboardKey key) {
+                    RankTree rankTree = new RankTree();
+                    rankTree.update(loadScores(key));
+                    return rankTree;
+                }
+
+                @Override
+                public RankTree reload(LeaderboardKey key, RankTree rankTree) {
+                    rankTree.update(loadScores(key));
+                    return rankTree;
+                }
+            });
+
+    /**
+     * Constructor for the Leaderboard Service.
+     *
+     * @param userService   User Service used to resolve the Users of the Leaderboards.
+     * @param entityManager the shared Entity Manager.
+     */
+    @Autowired
+    public LeaderboardService(UserService userService, EntityManager entityManager) {
+        this.userService = userService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Retrieve the snapshot of a Leaderboard.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     * @return the snapshot or empty, if the Guild couldn't be found.
+     */
+    public Mono<Optional<LeaderboardSnapshot>> retrieveLeaderboard(long guildId, LeaderboardType type) {
+        return Mono.fromSupplier(() -> BotWorker.getShardManager().getGuildById(guildId) == null ? Optional.<LeaderboardSnapshot>empty() :
+                        Optional.ofNullable(snapshots.get(new LeaderboardKey(guildId, type))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieve a page of a Leaderboard.
+     * Pages are read with a keyset query starting after the cursor, so no page reads more than its own entries.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     * @param cursor  the cursor returned with the previous page, or null for the first page.
+     * @param limit   the maximal amount of entries.
+     * @return the page or empty, if the Guild couldn't be found or the cursor is invalid.
+     */
+    public Mono<Optional<LeaderboardContainer>> retrievePage(long guildId, LeaderboardType type, String cursor, int limit) {
+        return Mono.fromSupplier(() -> {
+            Guild guild = BotWorker.getShardManager().getGuildById(guildId);
+
+            if (guild == null) return Optional.<LeaderboardContainer>empty();
+
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            LeaderboardKey key = new LeaderboardKey(guildId, type);
+            RankTree rankTree = rankTrees.get(key);
+            Class<? extends UserLevel> entity = entity(type);
+            List<? extends UserLevel> userLevels;
+            int offset = 0;
+
+            if (cursor != null) {
+                long[] position = decodeCursor(cursor);
+
+                if (position == null) return Optional.<LeaderboardContainer>empty();
+
+                // Everything ordered at or before the last entry of the previous page.
+                offset = rankTree.countBefore(position[0], position[1] + 1);
+
+                userLevels = entityManager.createQuery("FROM " + entity.getSimpleName() + " e WHERE e.guildUserId.guildId = :gid " +
+                                "AND (e.experience < :xp OR (e.experience = :xp AND e.guildUserId.userId > :uid)) " +
+                                "ORDER BY e.experience DESC, e.guildUserId.userId ASC", entity)
+                        .setParameter("gid", guildId).setParameter("xp", position[0]).setParameter("uid", position[1])
+                        .setMaxResults(pageSize).getResultList();
+            } else {
+                userLevels = entityManager.createQuery("FROM " + entity.getSimpleName() + " e WHERE e.guildUserId.guildId = :gid " +
+                                "ORDER BY e.experience DESC, e.guildUserId.userId ASC", entity)
+                        .setParameter("gid", guildId).setMaxResults(pageSize).getResultList();
+            }
+
+            return Optional.of(createPage(guild, key, userLevels, offset, rankTree.size()));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieve the rank of a User on a Leaderboard.
+     * The entry of the User is read fresh and applied to the rank tree, so the User always sees their current rank.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     * @param userId  the ID of the User.
+     * @return the rank or empty, if the Guild couldn't be found or the User is not ranked.
+     */
+    public Mono<Optional<LeaderboardRankContainer>> retrieveRank(long guildId, LeaderboardType type, long userId) {
+        return Mono.fromSupplier(() -> {
+            Guild guild = BotWorker.getShardManager().getGuildById(guildId);
+
+            if (guild == null) return Optional.<LeaderboardRankContainer>empty();
+
+            RankTree rankTree = rankTrees.get(new LeaderboardKey(guildId, type));
+            Class<? extends UserLevel> entity = entity(type);
+            List<? extends UserLevel> userLevels = entityManager.createQuery("FROM " + entity.getSimpleName() + " e " +
+                            "WHERE e.guildUserId.guildId = :gid AND e.guildUserId.userId = :uid", entity)
+                    .setParameter("gid", guildId).setParameter("uid", userId).getResultList();
+
+            if (userLevels.isEmpty()) {
+                rankTree.remove(userId);
+                return Optional.<LeaderboardRankContainer>empty();
+            }
+
+            UserLevel userLevel = userLevels.get(0);
+            rankTree.put(userId, userLevel.getExperience());
+
+            return Optional.of(new LeaderboardRankContainer(guildId,
+                    new UserLevelContainer(userLevel, userService.retrieveUser(guild, userId), rankTree.rank(userId) + 1),
+                    rankTree.size()));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Load the first page of a Leaderboard as new snapshot.
+     *
+     * @param key the key of the Leaderboard.
+     * @return the snapshot or null, if the Guild couldn't be found.
+     */
+    private LeaderboardSnapshot loadSnapshot(LeaderboardKey key) {
+        Guild guild = BotWorker.getShardManager().getGuildById(key.guildId());
+
+        if (guild == null) {
+            log.warn("Could not find guild with id {}", key.guildId());
+            return null;
+        }
+
+        List<? extends UserLevel> userLevels = (key.type() == LeaderboardType.VOICE ?
+                SQLSession.getSqlConnector().getSqlWorker().getTopVoice(key.guildId(), Data.getLeaderboardTop()) :
+                SQLSession.getSqlConnector().getSqlWorker().getTopChat(key.guildId(), Data.getLeaderboardTop())).block();
+
+        LeaderboardContainer leaderboardContainer = createPage(guild, key, userLevels != null ? userLevels : List.of(), 0, count(key.guildId(), key.type()));
+        List<UserLevelContainer> entries = key.type() == LeaderboardType.VOICE ?
+                leaderboardContainer.getVoiceLeaderboard() : leaderboardContainer.getChatLeaderboard();
+
+        // Enums hash by identity, their name keeps the ETag stable across restarts and instances.
+        int hash = Objects.hash(key.guildId(), key.type().name(), leaderboardContainer.getTotal());
+        for (UserLevelContainer entry : entries) {
+            hash = 31 * hash + Long.hashCode(entry.getUserLevel().getUserId());
+            hash = 31 * hash + Long.hashCode(entry.getUserLevel().getExperience());
+            hash = 31 * hash + (entry.getUser() != null ? Objects.hash(entry.getUser().getName(), entry.getUser().getAvatarUrl()) : 0);
+        }
+
+        return new LeaderboardSnapshot(leaderboardContainer, "W/\"" + Integer.toHexString(hash) + "\"");
+    }
+
+    /**
+     * Create a page of a Leaderboard, resolving all of its Users in one batch.
+     *
+     * @param guild      the Guild.
+     * @param key        the key of the Leaderboard.
+     * @param userLevels the entries of the page, ordered by their rank.
+     * @param offset     the zero-based rank of the first entry.
+     * @param total      the amount of entries on the Leaderboard.
+     * @return the page.
+     */
+    private LeaderboardContainer createPage(Guild guild, LeaderboardKey key, List<? extends UserLevel> userLevels, int offset, int total) {
+        Map<Long, UserContainer> users = userService.retrieveUsers(guild, userLevels.stream().map(UserLevel::getUserId).toList());
+
+        List<UserLevelContainer> entries = new ArrayList<>();
+        String nextCursor = null;
+
+        for (UserLevel userLevel : userLevels) {
+            entries.add(new UserLevelContainer(userLevel, users.get(userLevel.getUserId()), offset + entries.size() + 1));
+            nextCursor = encodeCursor(userLevel.getExperience(), userLevel.getUserId());
+        }
+
+        if (offset + entries.size() >= total) {
+            nextCursor = null;
+        }
+
+        LeaderboardContainer leaderboardContainer = new LeaderboardContainer();
+        leaderboardContainer.setGuildId(key.guildId());
+        leaderboardContainer.setTotal(total);
+        leaderboardContainer.setNextCursor(nextCursor);
+
+        if (key.type() == LeaderboardType.VOICE) {
+            leaderboardContainer.setVoiceLeaderboard(entries);
+        } else {
+            leaderboardContainer.setChatLeaderboard(entries);
+        }
+
+        return leaderboardContainer;
+    }
+
+    /**
+     * Load the experience of every User on a Leaderboard, without loading the level entities themselves.
+     *
+     * @param key the key of the Leaderboard.
+     * @return the experience, keyed by the User ID.
+     */
+    private Map<Long, Long> loadScores(LeaderboardKey key) {
+        Map<Long, Long> scores = new HashMap<>();
+
+        for (Object[] row : entityManager.createQuery("SELECT e.guildUserId.userId, e.experience FROM " + entity(key.type()).getSimpleName() + " e " +
+                        "WHERE e.guildUserId.guildId = :gid", Object[].class)
+                .setParameter("gid", key.guildId()).getResultList()) {
+            scores.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+
+        return scores;
+    }
+
+    /**
+     * Count the entries of a Leaderboard.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     * @return the amount of entries.
+     */
+    private int count(long guildId, LeaderboardType type) {
+        return Math.toIntExact(entityManager.createQuery("SELECT COUNT(e) FROM " + entity(type).getSimpleName() + " e WHERE e.guildUserId.guildId = :gid", Long.class)
+                .setParameter("gid", guildId).getSingleResult());
+    }
+
+    /**
+     * Get the entity storing the levels of a Leaderboard type.
+     *
+     * @param type the type of the Leaderboard.
+     * @return the entity class.
+     */
+    private static Class<? extends UserLevel> entity(LeaderboardType type) {
+        return type == LeaderboardType.VOICE ? VoiceUserLevel.class : ChatUserLevel.class;
+    }
+
+    /**
+     * Encode the position of an entry as cursor.
+     *
+     * @param experience the experience of the entry.
+     * @param userId     the ID of the User.
+     * @return the cursor.
+     */
+    static String encodeCursor(long experience, long userId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((experience + ":" + userId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor created by {@link #encodeCursor(long, long)}.
+     *
+     * @param cursor the cursor.
+     * @return the experience and the User ID or null, if the cursor is invalid.
+     */
+    static long[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return parts.length == 2 ? new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])} : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * A snapshot of a Leaderboard.
+     *
+     * @param leaderboard the Leaderboard.
+     * @param etag        the ETag of the Leaderboard, changes whenever its content changes.
+     */
+    public record LeaderboardSnapshot(LeaderboardContainer leaderboard, String etag) {
+    }
+
+    /**
+     * Key of a Leaderboard.
+     *
+     * @param guildId the ID of the Guild.
+     * @param type    the type of the Leaderboard.
+     */
+    private record LeaderboardKey(long guildId, LeaderboardType type) {
+    }
+}
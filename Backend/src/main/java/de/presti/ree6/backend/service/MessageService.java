@@ -0,0 +1,146 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.MessageContainer;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Service meant to resolve and cache Messages of Guild channels.
+ */
+@Slf4j
+@Service
+public class MessageService extends ListenerAdapter {
+
+    /**
+     * The maximum amount of Messages retrieved at the same time.
+     */
+    private static final int MAX_CONCURRENCY = 8;
+
+    /**
+     * Cache of the resolved Messages, keyed by the channel and the Message.
+     */
+    private final Cache<MessageKey, MessageContainer> messageCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Data.getMessageCacheExpire())
+            .build();
+
+    /**
+     * Constructor for the Message Service.
+     */
+    public MessageService() {
+        if (BotWorker.getShardManager() != null) {
+            BotWorker.getShardManager().addEventListener(this);
+        } else {
+            log.warn("ShardManager not available, Messages will only expire by time!");
+        }
+    }
+
+    /**
+     * Resolve Messages of a Guild, with at most {@value #MAX_CONCURRENCY} requests in flight.
+     *
+     * @param guild    the Guild.
+     * @param messages the IDs of the Messages, mapped to the ID of their channel.
+     * @return the resolved Messages, mapped by their ID. Messages that couldn't be resolved are missing.
+     */
+    public Mono<Map<Long, MessageContainer>> retrieveMessages(Guild guild, Map<Long, Long> messages) {
+        return Flux.fromIterable(messages.entrySet())
+                .flatMap(entry -> retrieveMessage(guild, entry.getValue(), entry.getKey())
+                        .map(message -> Map.entry(entry.getKey(), message)), MAX_CONCURRENCY)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Resolve a Message of a Guild.
+     *
+     * @param guild     the Guild.
+     * @param channelId the ID of the channel.
+     * @param messageId the ID of the Message.
+     * @return the Message or empty, if the channel or Message couldn't be found.
+     */
+    public Mono<MessageContainer> retrieveMessage(Guild guild, long channelId, long messageId) {
+        MessageKey key = new MessageKey(channelId, messageId);
+        MessageContainer cached = messageCache.getIfPresent(key);
+
+        if (cached != null) return Mono.just(cached);
+
+        StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, channelId);
+
+        if (channel == null) return Mono.empty();
+
+        return Mono.fromFuture(() -> channel.retrieveMessageById(messageId).submit())
+                .map(MessageContainer::new)
+                .doOnNext(message -> messageCache.put(key, message))
+                .onErrorResume(ex -> {
+                    log.debug("Could not retrieve Message {} in {}", messageId, channelId, ex);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Invalidate a cached Message.
+     *
+     * @param channelId the ID of the channel.
+     * @param messageId the ID of the Message.
+     */
+    public void invalidate(long channelId, long messageId) {
+        messageCache.invalidate(new MessageKey(channelId, messageId));
+    }
+
+    /**
+     * Invalidate all cached Messages of a channel.
+     *
+     * @param channelId the ID of the channel.
+     */
+    public void invalidateChannel(long channelId) {
+        messageCache.asMap().keySet().removeIf(key -> key.channelId() == channelId);
+    }
+
+    //region Events
+
+    @Override
+    public void onMessageUpdate(@NotNull MessageUpdateEvent event) {
+        invalidate(event.getChannel().getIdLong(), event.getMessageIdLong());
+    }
+
+    @Override
+    public void onMessageDelete(@NotNull MessageDeleteEvent event) {
+        invalidate(event.getChannel().getIdLong(), event.getMessageIdLong());
+    }
+
+    @Override
+    public void onMessageBulkDelete(@NotNull MessageBulkDeleteEvent event) {
+        event.getMessageIds().forEach(messageId -> invalidate(event.getChannel().getIdLong(), Long.parseLong(messageId)));
+    }
+
+    @Override
+    public void onChannelDelete(@NotNull ChannelDeleteEvent event) {
+        invalidateChannel(event.getChannel().getIdLong());
+    }
+
+    //endregion
+
+    /**
+     * Key of a cached Message.
+     *
+     * @param channelId the ID of the channel.
+     * @param messageId the ID of the Message.
+     */
+    private record MessageKey(long channelId, long messageId) {
+    }
+}
@@ -0,0 +1,163 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.utils.data.Data;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Service meant to cache the Permission decisions of Users in Guilds.
+ */
+@Slf4j
+@Service
+public class PermissionService extends ListenerAdapter {
+
+    /**
+     * Cache of the Administrator decisions, keyed by the User and the Guild.
+     */
+    private final Cache<PermissionKey, Boolean> adminCache;
+
+    /**
+     * Constructor for the Permission Service.
+     */
+    public PermissionService() {
+        this(Data.getSessionCacheSize(), Data.getPermissionCacheExpire());
+    }
+
+    /**
+     * Constructor for the Permission Service.
+     *
+     * @param maximumSize how many decisions should be cached at most.
+     * @param expire      after how long a cached decision expires.
+     */
+    PermissionService(long maximumSize, Duration expire) {
+        this.adminCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expire)
+                .build();
+
+        if (BotWorker.getShardManager() != null) {
+            BotWorker.getShardManager().addEventListener(this);
+        } else {
+            log.warn("ShardManager not available, Permission decisions will only expire by time!");
+        }
+    }
+
+    /**
+     * Check if a User has the Administrator Permission in a Guild.
+     * The JDA member cache is used first, a REST request is only sent if the Member is not cached.
+     * Only definite answers are cached, a failed request denies this check without being remembered.
+     *
+     * @param guild  the Guild.
+     * @param userId the ID of the User.
+     * @return true, if the User is a Member of the Guild and has the Administrator Permission.
+     */
+    public boolean isAdmin(Guild guild, long userId) {
+        return Boolean.TRUE.equals(adminCache.get(new PermissionKey(userId, guild.getIdLong()), key -> {
+            Member member = guild.getMemberById(key.userId());
+
+            if (member == null) {
+                try {
+                    member = guild.retrieveMemberById(key.userId()).complete();
+                } catch (ErrorResponseException ex) {
+                    if (ex.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER || ex.getErrorResponse() == ErrorResponse.UNKNOWN_USER) {
+                        return false;
+                    }
+
+                    log.debug(ex.getMessage(), ex);
+                    return null;
+                } catch (Exception ex) {
+                    log.debug(ex.getMessage(), ex);
+                    return null;
+                }
+            }
+
+            return member != null && member.hasPermission(Permission.ADMINISTRATOR);
+        }));
+    }
+
+    /**
+     * Invalidate the cached decision of a User in a Guild.
+     *
+     * @param userId  the ID of the User.
+     * @param guildId the ID of the Guild.
+     */
+    public void invalidate(long userId, long guildId) {
+        adminCache.invalidate(new PermissionKey(userId, guildId));
+    }
+
+    /**
+     * Invalidate all cached decisions of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public void invalidateGuild(long guildId) {
+        adminCache.asMap().keySet().removeIf(key -> key.guildId() == guildId);
+    }
+
+    //region Events
+
+    @Override
+    public void onGuildMemberJoin(@NotNull GuildMemberJoinEvent event) {
+        invalidate(event.getUser().getIdLong(), event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
+        invalidate(event.getUser().getIdLong(), event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRoleAdd(@NotNull GuildMemberRoleAddEvent event) {
+        invalidate(event.getUser().getIdLong(), event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(@NotNull GuildMemberRoleRemoveEvent event) {
+        invalidate(event.getUser().getIdLong(), event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onRoleUpdatePermissions(@NotNull RoleUpdatePermissionsEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onRoleDelete(@NotNull RoleDeleteEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    @Override
+    public void onGuildUpdateOwner(@NotNull GuildUpdateOwnerEvent event) {
+        invalidateGuild(event.getGuild().getIdLong());
+    }
+
+    //endregion
+
+    /**
+     * Key of a cached Permission decision.
+     *
+     * @param userId  the ID of the User.
+     * @param guildId the ID of the Guild.
+     */
+    private record PermissionKey(long userId, long guildId) {
+    }
+}
@@ -0,0 +1,319 @@
+package de.presti.ree6.backend.service;
+
+import com.google.gson.JsonArray;
+import de.presti.ree6.backend.utils.MetamodelUtil;
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.DatabaseRecordingStorage;
+import de.presti.ree6.backend.utils.data.FileRecordingStorage;
+import de.presti.ree6.backend.utils.data.RecordingDownload;
+import de.presti.ree6.backend.utils.data.RecordingParticipantIndex;
+import de.presti.ree6.backend.utils.data.RecordingStorage;
+import de.presti.ree6.sql.entities.Recording;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Service meant to serve the audio of Recordings from the configured Recording Storage and to keep track of their participants.
+ */
+@Slf4j
+@Service
+public class RecordingService {
+
+    /**
+     * The shared Entity Manager, used to resolve the Table and Column names of Recordings.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * The storage reading the audio from the Recording Table, used for every Recording that hasn't been moved elsewhere.
+     */
+    private final DatabaseRecordingStorage databaseStorage;
+
+    /**
+     * The storage keeping the audio in files, null if Recordings are kept in the Database.
+     */
+    private final FileRecordingStorage fileStorage;
+
+    /**
+     * The index of the Users that took part in a Recording.
+     */
+    private final RecordingParticipantIndex participantIndex;
+
+    /**
+     * Caps the amount of Recordings streamed at the same time, as every one of them holds a Database connection or a FLAC decoder.
+     */
+    private final Semaphore downloads = new Semaphore(Data.getRecordingDownloadConcurrency());
+
+    /**
+     * The Table and Column names of Recordings, resolved on first use.
+     */
+    private volatile RecordingStorage.RecordingMapping mapping;
+
+    /**
+     * Constructor for the Recording Service.
+     * A Thread adding new Recordings to the participant index and deleting downloaded Recordings is started.
+     * If the file storage is configured, a Thread moving the Recordings out of the Database and compressing them is started.
+     *
+     * @param entityManager the shared Entity Manager.
+     */
+    @Autowired
+    public RecordingService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.databaseStorage = new DatabaseRecordingStorage(this::resolveMapping);
+        this.participantIndex = new RecordingParticipantIndex(this::resolveMapping);
+
+        ThreadUtil.createNewThread(x -> {
+            try {
+                List<String> identifiers = participantIndex.retrieveUnindexed(Data.getRecordingMigrationBatch());
+
+                if (!identifiers.isEmpty()) {
+                    queryMetadata((criteriaBuilder, root) -> root.get("identifier").in(identifiers)).forEach(this::index);
+                }
+
+                participantIndex.cleanup();
+                databaseStorage.retrieveDownloaded().forEach(this::deleteRecording);
+            } catch (Exception exception) {
+                log.error("Failed to index Recordings", exception);
+            }
+        }, throwable -> log.error("Failed running Recording index Thread", throwable), Data.getRecordingIndexInterval(), true, false);
+
+        if (Data.getRecordingStorageType().equalsIgnoreCase("file")) {
+            fileStorage = new FileRecordingStorage(Paths.get(Data.getRecordingStoragePath()), this::resolveMapping, databaseStorage);
+
+            ThreadUtil.createNewThread(x -> {
+                try {
+                    int moved = fileStorage.migrate(Data.getRecordingMigrationBatch());
+
+                    if (moved > 0) {
+                        log.info("Moved {} Recordings out of the Database", moved);
+                    }
+
+                    int compacted = fileStorage.compact(Data.getRecordingMigrationBatch());
+
+                    if (compacted > 0) {
+                        log.info("Compressed {} Recordings", compacted);
+                    }
+
+                    fileStorage.cleanup();
+                } catch (Exception exception) {
+                    log.error("Failed to move Recordings", exception);
+                }
+            }, throwable -> log.error("Failed running Recording migration Thread", throwable), Data.getRecordingMigrationInterval(), true, false);
+        } else {
+            fileStorage = null;
+        }
+    }
+
+    /**
+     * Retrieve the metadata of a Recording without loading its audio.
+     * Every attribute of the Recording except the binary ones is selected.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the metadata or empty, if there is no such Recording.
+     */
+    public Optional<RecordingMetadata> retrieveMetadata(String identifier) {
+        return queryMetadata((criteriaBuilder, root) -> criteriaBuilder.equal(root.get("identifier"), identifier)).stream().findFirst();
+    }
+
+    /**
+     * Retrieve the metadata of every Recording a User took part in, using the participant index.
+     *
+     * @param userId the ID of the User.
+     * @return the metadata, newest first.
+     */
+    public List<RecordingMetadata> retrieveRecordings(long userId) {
+        Collection<String> identifiers = participantIndex.retrieveRecordings(userId);
+
+        if (identifiers.isEmpty()) return List.of();
+
+        return queryMetadata((criteriaBuilder, root) -> root.get("identifier").in(identifiers)).stream()
+                .sorted(Comparator.comparingLong(RecordingMetadata::creation).reversed()).toList();
+    }
+
+    /**
+     * Check if a User took part in a Recording, using the participant index.
+     * Recordings that haven't been indexed yet are left to the caller, which indexes them while checking the Guilds of the User.
+     *
+     * @param identifier the identifier of the Recording.
+     * @param userId     the ID of the User.
+     * @return true or false, or empty if the Recording hasn't been indexed yet.
+     */
+    public Optional<Boolean> isParticipant(String identifier, long userId) {
+        return participantIndex.isParticipant(identifier, userId);
+    }
+
+    /**
+     * Add the participants of a Recording to the participant index.
+     *
+     * @param recording the metadata of the Recording.
+     */
+    public void index(RecordingMetadata recording) {
+        participantIndex.index(recording.identifier(), recording.guildId(), recording.creation(), recording.participants());
+    }
+
+    /**
+     * Start the download of a Recording.
+     * Files are sent as they are, everything else is streamed and has to take a download slot first,
+     * waiting up to the configured time for one to become free.
+     *
+     * @param identifier the identifier of the Recording.
+     * @param resource   the audio of the Recording.
+     * @param complete   if the download covers the whole Recording and should mark it as downloaded once it has been read.
+     * @return the download, which has to be closed once the response has been written, or null if there is no free download slot.
+     */
+    public RecordingDownload startDownload(String identifier, Resource resource, boolean complete) {
+        Runnable onComplete = complete ? () -> markDownloaded(identifier) : null;
+
+        if (resource.isFile()) {
+            return new RecordingDownload(resource, onComplete, () -> {});
+        }
+
+        try {
+            if (!downloads.tryAcquire(Data.getRecordingDownloadWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        return new RecordingDownload(resource, onComplete, downloads::release);
+    }
+
+    /**
+     * Open the audio of a Recording.
+     * Files are served as {@link org.springframework.core.io.FileSystemResource}, Recordings still in the Database
+     * and compressed Recordings requested as WAV as streamed Resource, which {@link #startDownload(String, Resource, boolean)} caps.
+     *
+     * @param identifier the identifier of the Recording.
+     * @param compressed if the FLAC file should be served, if the Recording is compressed.
+     * @return the Resource or null, if the Recording has no audio.
+     */
+    public Resource openRecording(String identifier, boolean compressed) {
+        Resource resource = fileStorage != null && compressed ? fileStorage.openCompressed(identifier) : null;
+
+        if (resource == null && fileStorage != null) {
+            resource = fileStorage.open(identifier);
+        }
+
+        return resource != null ? resource : databaseStorage.open(identifier);
+    }
+
+    /**
+     * Mark a Recording as completely downloaded, so it is deleted once the configured delay has passed.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    public void markDownloaded(String identifier) {
+        if (fileStorage == null || !fileStorage.markDownloaded(identifier)) {
+            databaseStorage.markDownloaded(identifier);
+        }
+    }
+
+    /**
+     * Delete a Recording together with its audio.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    public void deleteRecording(String identifier) {
+        (fileStorage != null ? fileStorage : databaseStorage).delete(identifier);
+        participantIndex.remove(identifier);
+    }
+
+    /**
+     * The metadata of a Recording.
+     *
+     * @param identifier   the identifier of the Recording.
+     * @param guildId      the ID of the Guild.
+     * @param voiceId      the ID of the recorded voice channel.
+     * @param creatorId    the ID of the User that started the Recording.
+     * @param creation     the creation time in milliseconds.
+     * @param participants the IDs of the Users that took part in the Recording.
+     */
+    public record RecordingMetadata(String identifier, long guildId, long voiceId, long creatorId, long creation, JsonArray participants) {
+    }
+
+    /**
+     * Query the metadata of Recordings without loading their audio.
+     * The attributes are resolved through the metamodel, so a Recording entity that doesn't match fails instead of returning defaults.
+     * Rows with a missing value are logged and skipped.
+     *
+     * @param condition creates the condition the Recordings have to match.
+     * @return the metadata of the matching Recordings.
+     * @throws IllegalStateException if the Recording entity lacks one of the attributes or it has an unexpected type.
+     */
+    private List<RecordingMetadata> queryMetadata(BiFunction<CriteriaBuilder, Root<Recording>, Predicate> condition) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Recording> root = query.from(Recording.class);
+        EntityType<Recording> model = root.getModel();
+
+        Path<String> identifier = root.get(MetamodelUtil.attribute(model, "identifier", String.class));
+        Path<Long> guildId = root.get(MetamodelUtil.attribute(model, "guildId", Long.class));
+        Path<Long> voiceId = root.get(MetamodelUtil.attribute(model, "voiceId", Long.class));
+        Path<Long> creatorId = root.get(MetamodelUtil.attribute(model, "creatorId", Long.class));
+        Path<Long> creation = root.get(MetamodelUtil.attribute(model, "creation", Long.class));
+        Path<JsonArray> participants = root.get(MetamodelUtil.attribute(model, "jsonArray", JsonArray.class));
+
+        query.multiselect(identifier, guildId, voiceId, creatorId, creation, participants).where(condition.apply(criteriaBuilder, root));
+
+        List<RecordingMetadata> recordings = new ArrayList<>();
+
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            if (Arrays.stream(tuple.toArray()).anyMatch(Objects::isNull)) {
+                log.error("Skipped Recording {}, its metadata is incomplete", tuple.get(identifier));
+                continue;
+            }
+
+            recordings.add(new RecordingMetadata(tuple.get(identifier), tuple.get(guildId), tuple.get(voiceId), tuple.get(creatorId),
+                    tuple.get(creation), tuple.get(participants)));
+        }
+
+        return recordings;
+    }
+
+    /**
+     * Resolve the Table and Column names of Recordings from the Hibernate metamodel.
+     *
+     * @return the Table and Column names.
+     */
+    private RecordingStorage.RecordingMapping resolveMapping() {
+        if (mapping == null) {
+            AbstractEntityPersister persister = (AbstractEntityPersister) entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(Recording.class);
+
+            String identifierColumn = "identifier".equals(persister.getIdentifierPropertyName()) ?
+                    persister.getIdentifierColumnNames()[0] : persister.getPropertyColumnNames("identifier")[0];
+
+            mapping = new RecordingStorage.RecordingMapping(persister.getPropertyTableName("recording"), identifierColumn,
+                    persister.getPropertyColumnNames("recording")[0]);
+        }
+
+        return mapping;
+    }
+}
@@ -1,5 +1,8 @@
 package de.presti.ree6.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.jagrosh.jdautilities.oauth2.Scope;
 import com.jagrosh.jdautilities.oauth2.entities.OAuth2Guild;
 import com.jagrosh.jdautilities.oauth2.entities.OAuth2User;
@@ -7,14 +10,26 @@ import com.jagrosh.jdautilities.oauth2.session.Session;
 import de.presti.ree6.backend.Server;
 import de.presti.ree6.backend.bot.BotWorker;
 import de.presti.ree6.backend.utils.RandomUtils;
+import de.presti.ree6.backend.utils.SessionTokenUtil;
+import de.presti.ree6.backend.utils.SingleFlight;
+import de.presti.ree6.backend.utils.data.CustomSessionController;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.RateLimitInterceptor;
+import de.presti.ree6.backend.utils.data.RequestMemo;
+import de.presti.ree6.backend.utils.data.SessionVersionStore;
 import de.presti.ree6.backend.utils.data.container.guild.GuildContainer;
+import de.presti.ree6.backend.utils.data.container.guild.GuildListContainer;
 import de.presti.ree6.backend.utils.data.container.SessionContainer;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Member;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Collections;
 import java.util.List;
@@ -27,37 +42,291 @@ import java.util.Optional;
 @Service
 public class SessionService {
 
+    /**
+     * Cache of the resolved Sessions, keyed by their Identifier.
+     * Entries are refreshed in the background before they expire and dropped once Discord rejects them.
+     */
+    private final LoadingCache<String, SessionContainer> sessionCache = Caffeine.newBuilder()
+            .maximumSize(Data.getSessionCacheSize())
+            .expireAfterWrite(Data.getSessionCacheExpire())
+            .refreshAfterWrite(Data.getSessionCacheRefresh())
+            .executor(runnable -> Schedulers.boundedElastic().schedule(runnable))
+            .build(this::loadSession);
+
+    /**
+     * Cache of the OAuth2 Guilds of a Session, keyed by the Identifier of the Session.
+     */
+    private final Cache<String, GuildListContainer> guildCache = Caffeine.newBuilder()
+            .maximumSize(Data.getSessionCacheSize())
+            .expireAfterWrite(Data.getGuildCacheExpire())
+            .build();
+
+    /**
+     * Last known OAuth2 Guilds of a Session, used as fallback while the requests to Discord are rate-limited.
+     */
+    private final Cache<String, GuildListContainer> staleGuildCache = Caffeine.newBuilder()
+            .maximumSize(Data.getSessionCacheSize())
+            .expireAfterWrite(Data.getSessionCacheExpire())
+            .build();
+
+    /**
+     * Session versions of the Users, a Token is only valid if it carries the current version of its User.
+     * Created on first use, since the Database isn't needed while stateless Tokens are disabled.
+     */
+    private volatile SessionVersionStore sessionVersions;
+
+    /**
+     * Single Flight used to share concurrent Session lookups of the same Identifier.
+     */
+    private final SingleFlight<String, Optional<SessionContainer>> sessionFlight;
+
+    /**
+     * Single Flight used to share concurrent Guild lookups with the same parameters.
+     */
+    private final SingleFlight<GuildKey, Optional<GuildContainer>> guildFlight;
+
+    /**
+     * Permission Service used to check the Permissions of Users.
+     */
+    private final PermissionService permissionService;
+
+    /**
+     * Constructor for the Session Service.
+     *
+     * @param meterRegistry     Meter Registry used to publish the metrics of the Service.
+     * @param permissionService Permission Service used to check the Permissions of Users.
+     */
+    @Autowired
+    public SessionService(MeterRegistry meterRegistry, PermissionService permissionService) {
+        this.permissionService = permissionService;
+        this.sessionFlight = new SingleFlight<>(meterRegistry, "session");
+        this.guildFlight = new SingleFlight<>(meterRegistry, "guild");
+    }
+
     /**
      * Retrieve a Session from the Identifier.
+     * While stateless Tokens are enabled only Tokens are accepted, since the payload of a Token is readable
+     * and a plain Identifier taken from a revoked Token must not be usable on its own.
      *
      * @param identifier Identifier to identify the Session.
      * @return Session Container with the Session.
      */
     public Mono<Optional<SessionContainer>> retrieveSession(String identifier) {
-        return Mono.fromSupplier(() -> {
-            try {
-                // Try retrieving the Session from the Identifier.
-                Session session = Server.getInstance().getOAuth2Client().getSessionController().getSession(identifier);
+        if (Data.isStatelessTokens()) {
+            if (!SessionTokenUtil.isToken(identifier)) {
+                return Mono.just(Optional.empty());
+            }
 
-                if (session == null) {
-                    throw new IllegalAccessException("Session not found!");
+            return RequestMemo.memoize(new SessionKey(identifier), () -> Mono.fromSupplier(() -> Optional.ofNullable(resolveToken(identifier))));
+        }
+
+        return RequestMemo.memoize(new SessionKey(identifier),
+                () -> sessionFlight.execute(identifier, () -> Mono.fromSupplier(() -> Optional.ofNullable(sessionCache.get(identifier)))));
+    }
+
+    /**
+     * Invalidate a Session, removing it from the caches and the Session store of the OAuth2 Client.
+     *
+     * @param identifier Identifier to identify the Session.
+     */
+    public void invalidateSession(String identifier) {
+        if (SessionTokenUtil.isToken(identifier)) {
+            SessionTokenUtil.SessionToken sessionToken = SessionTokenUtil.verify(identifier);
+            if (sessionToken == null) return;
+
+            revokeTokens(sessionToken.userId());
+            identifier = sessionToken.identifier();
+        } else if (Data.isStatelessTokens()) {
+            return;
+        } else {
+            SessionContainer sessionContainer = sessionCache.getIfPresent(identifier);
+            if (sessionContainer != null) {
+                revokeTokens(sessionContainer.getUser().getId());
+            }
+        }
+
+        sessionCache.invalidate(identifier);
+        invalidateGuilds(identifier);
+
+        if (Server.getInstance().getOAuth2Client().getSessionController() instanceof CustomSessionController customSessionController) {
+            customSessionController.removeSession(identifier);
+        }
+    }
+
+    /**
+     * Revoke all Tokens issued to a User, by increasing the Session version of the User.
+     *
+     * @param userId the ID of the User.
+     */
+    private void revokeTokens(long userId) {
+        getSessionVersions().increment(userId);
+    }
+
+    /**
+     * Resolve a Session from a signed Token, without contacting Discord.
+     *
+     * @param token the Token sent by the client.
+     * @return Session Container with the Session or null, if the Token is not valid (anymore).
+     */
+    private SessionContainer resolveToken(String token) {
+        SessionTokenUtil.SessionToken sessionToken = verifyToken(token);
+
+        if (sessionToken == null) {
+            return null;
+        }
+
+        UserContainer userContainer = new UserContainer(sessionToken.userId(), sessionToken.name(), sessionToken.discriminator(), sessionToken.avatarUrl());
+        return new SessionContainer("", null, userContainer, null, token);
+    }
+
+    /**
+     * Issue a new Token, if the given one is about to expire.
+     * Discord is contacted to make sure the underlying Session is still valid before a new Token is issued.
+     *
+     * @param token the Token sent by the client.
+     * @return the new Token or null, if the Token doesn't have to or can't be refreshed.
+     */
+    public String refreshToken(String token) {
+        SessionTokenUtil.SessionToken sessionToken = verifyToken(token);
+
+        if (sessionToken == null || sessionToken.expiresAt() - System.currentTimeMillis() > Data.getTokenLifetime().toMillis() / 4) {
+            return null;
+        }
+
+        SessionContainer sessionContainer = sessionCache.get(sessionToken.identifier());
+        return sessionContainer != null ? issueToken(sessionToken.identifier(), sessionContainer.getUser()) : null;
+    }
+
+    /**
+     * Verify a Token and check that it hasn't been revoked.
+     *
+     * @param token the Token sent by the client.
+     * @return the content of the Token or null, if it is invalid, expired or revoked.
+     */
+    private SessionTokenUtil.SessionToken verifyToken(String token) {
+        SessionTokenUtil.SessionToken sessionToken = SessionTokenUtil.verify(token);
+
+        if (sessionToken == null) {
+            return null;
+        }
+
+        try {
+            return sessionToken.version() == getSessionVersions().getVersion(sessionToken.userId()) ? sessionToken : null;
+        } catch (IllegalStateException exception) {
+            log.error("Rejected Token, since its version couldn't be checked", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Get the Session Version Store, creating it on first use.
+     *
+     * @return the Session Version Store.
+     */
+    private SessionVersionStore getSessionVersions() {
+        if (sessionVersions == null) {
+            synchronized (this) {
+                if (sessionVersions == null) {
+                    sessionVersions = new SessionVersionStore();
                 }
+            }
+        }
+
+        return sessionVersions;
+    }
+
+    /**
+     * Issue a new Token for a Session.
+     *
+     * @param identifier    Identifier of the Session.
+     * @param userContainer the User of the Session.
+     * @return the signed Token.
+     */
+    private String issueToken(String identifier, UserContainer userContainer) {
+        return SessionTokenUtil.issue(new SessionTokenUtil.SessionToken(identifier, userContainer.getId(), userContainer.getName(),
+                userContainer.getDiscriminator(), userContainer.getAvatarUrl(), getSessionVersions().getVersion(userContainer.getId()),
+                System.currentTimeMillis() + Data.getTokenLifetime().toMillis()));
+    }
+
+    /**
+     * Invalidate the cached Guilds of a Session, so that they have to be retrieved again on the next request.
+     *
+     * @param identifier Identifier to identify the Session.
+     */
+    public void invalidateGuilds(String identifier) {
+        guildCache.invalidate(identifier);
+        staleGuildCache.invalidate(identifier);
+    }
+
+    /**
+     * Retrieve the OAuth2 Guilds of a Session, either from the cache or from Discord.
+     * Concurrent lookups of the same Session share a single load of the cache.
+     *
+     * @param identifier       Identifier to identify the Session.
+     * @param sessionContainer Session Container of the Session.
+     * @return Guild List Container with the Guilds or null, if they couldn't be retrieved.
+     */
+    private GuildListContainer retrieveOAuth2Guilds(String identifier, SessionContainer sessionContainer) {
+        if (SessionTokenUtil.isToken(identifier)) {
+            SessionTokenUtil.SessionToken sessionToken = SessionTokenUtil.verify(identifier);
+            if (sessionToken == null) return null;
 
-                // Try retrieving the User from the Session.
-                OAuth2User oAuth2User = Server.getInstance().getOAuth2Client().getUser(session).complete();
+            identifier = sessionToken.identifier();
+        }
 
-                if (oAuth2User == null) {
-                    throw new IllegalAccessException("User not found!");
+        return guildCache.get(identifier, key -> {
+            try {
+                // Sessions resolved from a Token do not carry the Session, so it has to be looked up.
+                Session session = sessionContainer.getSession() != null ? sessionContainer.getSession() :
+                        Server.getInstance().getOAuth2Client().getSessionController().getSession(key);
+
+                if (session == null) {
+                    throw new IllegalAccessException("Session not found!");
                 }
 
-                return Optional.of(new SessionContainer("", session, oAuth2User));
+                GuildListContainer guildListContainer = new GuildListContainer(Server.getInstance().getOAuth2Client().getGuilds(session).complete());
+                staleGuildCache.put(key, guildListContainer);
+                return guildListContainer;
             } catch (Exception ex) {
                 log.debug(ex.getMessage(), ex);
-                return Optional.empty();
+
+                // Serve the last known Guilds, if Discord can't be asked right now.
+                return RateLimitInterceptor.RateLimitedException.isCause(ex) ? staleGuildCache.getIfPresent(key) : null;
             }
         });
     }
 
+    /**
+     * Load a Session and its User from Discord.
+     *
+     * @param identifier Identifier to identify the Session.
+     * @return Session Container with the Session or null, if the Session is not valid (anymore).
+     */
+    private SessionContainer loadSession(String identifier) {
+        try {
+            // Try retrieving the Session from the Identifier.
+            Session session = Server.getInstance().getOAuth2Client().getSessionController().getSession(identifier);
+
+            if (session == null) {
+                throw new IllegalAccessException("Session not found!");
+            }
+
+            // Try retrieving the User from the Session.
+            OAuth2User oAuth2User = Server.getInstance().getOAuth2Client().getUser(session).complete();
+
+            if (oAuth2User == null) {
+                throw new IllegalAccessException("User not found!");
+            }
+
+            return new SessionContainer("", session, oAuth2User);
+        } catch (Exception ex) {
+            log.debug(ex.getMessage(), ex);
+
+            // Keep the current Session while refreshing, if Discord can't be asked right now.
+            return RateLimitInterceptor.RateLimitedException.isCause(ex) ? sessionCache.getIfPresent(identifier) : null;
+        }
+    }
+
     /**
      * Create a new Session.
      *
@@ -84,7 +353,19 @@ public class SessionService {
                         throw new IllegalAccessException("User not found!");
                     }
 
-                    return Optional.of(new SessionContainer(identifier, session, Server.getInstance().getOAuth2Client().getUser(session).complete()));
+                    SessionContainer cachedContainer = new SessionContainer("", session, oAuth2User);
+                    sessionCache.put(identifier, cachedContainer);
+                    warmSession(identifier, cachedContainer);
+
+                    SessionContainer sessionContainer = new SessionContainer(identifier, session, oAuth2User);
+
+                    if (Data.isStatelessTokens()) {
+                        // The plain Identifier isn't accepted while Tokens are enabled, so it isn't handed out either.
+                        sessionContainer.setIdentifier("");
+                        sessionContainer.setToken(issueToken(identifier, sessionContainer.getUser()));
+                    }
+
+                    return Optional.of(sessionContainer);
                 } else {
                     throw new IllegalStateException("Session creation failed!");
                 }
@@ -96,6 +377,24 @@ public class SessionService {
         });
     }
 
+    /**
+     * Warm the Guild List and Permission caches of a new Session in the background,
+     * so that the first requests after the login can be served from memory.
+     *
+     * @param identifier       Identifier to identify the Session.
+     * @param sessionContainer Session Container of the Session.
+     */
+    private void warmSession(String identifier, SessionContainer sessionContainer) {
+        Mono.fromSupplier(() -> Optional.ofNullable(retrieveOAuth2Guilds(identifier, sessionContainer)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(guildListContainer -> Flux.fromIterable(guildListContainer.map(GuildListContainer::getGuilds).orElse(Collections.emptyList())))
+                .filter(oAuth2Guild -> oAuth2Guild.hasPermission(Permission.ADMINISTRATOR))
+                .mapNotNull(oAuth2Guild -> BotWorker.getShardManager().getGuildById(oAuth2Guild.getIdLong()))
+                .flatMap(guild -> Mono.fromRunnable(() -> permissionService.isAdmin(guild, sessionContainer.getUser().getId()))
+                        .subscribeOn(Schedulers.boundedElastic()), 8)
+                .subscribe(null, throwable -> log.debug("Failed to warm Session caches", throwable));
+    }
+
     /**
      * Retrieve a Guild from the Identifier and the Guild ID.
      *
@@ -143,6 +442,28 @@ public class SessionService {
      * @return Guild Container with the Guild.
      */
     public Mono<Optional<GuildContainer>> retrieveGuild(String identifier, long guildId, boolean retrieveChannels, boolean retrieveRoles, boolean permissionCheck) {
+        // A Guild resolved with Channels and Roles within the same request can serve every lookup of it.
+        if (!retrieveChannels || !retrieveRoles) {
+            Mono<Optional<GuildContainer>> fullGuild = RequestMemo.peek(new GuildKey(identifier, guildId, true, true, permissionCheck));
+            if (fullGuild != null) return fullGuild;
+        }
+
+        GuildKey guildKey = new GuildKey(identifier, guildId, retrieveChannels, retrieveRoles, permissionCheck);
+        return RequestMemo.memoize(guildKey,
+                () -> guildFlight.execute(guildKey, () -> loadGuild(identifier, guildId, retrieveChannels, retrieveRoles, permissionCheck)));
+    }
+
+    /**
+     * Load a Guild from the Identifier and the Guild ID.
+     *
+     * @param identifier       Identifier to identify the Session.
+     * @param guildId          Guild ID to identify the Guild.
+     * @param retrieveChannels If the Channels should be retrieved.
+     * @param retrieveRoles    If the Roles should be retrieved.
+     * @param permissionCheck  If the Permission should be checked.
+     * @return Guild Container with the Guild.
+     */
+    private Mono<Optional<GuildContainer>> loadGuild(String identifier, long guildId, boolean retrieveChannels, boolean retrieveRoles, boolean permissionCheck) {
         return retrieveSession(identifier).map(sessionOptional -> {
             if (sessionOptional.isEmpty()) {
                 return Optional.empty();
@@ -151,10 +472,14 @@ public class SessionService {
             SessionContainer sessionContainer = sessionOptional.get();
 
             OAuth2Guild oAuth2Guild = null;
-            try {
-                oAuth2Guild = Server.getInstance().getOAuth2Client().getGuilds(sessionContainer.getSession()).complete()
-                        .stream().filter(c -> c.getIdLong() == guildId && c.hasPermission(Permission.ADMINISTRATOR)).findFirst().orElse(null);
-            } catch (Exception ignore) {
+            GuildListContainer guildListContainer = retrieveOAuth2Guilds(identifier, sessionContainer);
+
+            if (guildListContainer != null) {
+                oAuth2Guild = guildListContainer.getGuildById(guildId);
+
+                if (oAuth2Guild != null && !oAuth2Guild.hasPermission(Permission.ADMINISTRATOR)) {
+                    oAuth2Guild = null;
+                }
             }
 
             // Retrieve the Guild by its giving ID.
@@ -170,16 +495,14 @@ public class SessionService {
                 }
             }
 
-            Member member = guild.retrieveMemberById(sessionContainer.getUser().getId()).complete();
-            if (permissionCheck) {
-                if (member == null || !member.hasPermission(Permission.ADMINISTRATOR)) {
-                    log.warn("User {} has not enough permission for {}", sessionContainer.getUser().getId(), guildId);
-                    return Optional.empty();
-                }
+            boolean admin = permissionService.isAdmin(guild, sessionContainer.getUser().getId());
+            if (permissionCheck && !admin) {
+                log.warn("User {} has not enough permission for {}", sessionContainer.getUser().getId(), guildId);
+                return Optional.empty();
             }
 
             GuildContainer guildContainer = new GuildContainer(guild, retrieveChannels, retrieveRoles);
-            guildContainer.setAdmin(member.hasPermission(Permission.ADMINISTRATOR));
+            guildContainer.setAdmin(admin);
             return Optional.of(guildContainer);
         });
     }
@@ -241,18 +564,36 @@ public class SessionService {
 
            SessionContainer sessionContainer = sessionOptional.get();
             List<OAuth2Guild> guilds = Collections.emptyList();
+            GuildListContainer guildListContainer = retrieveOAuth2Guilds(identifier, sessionContainer);
 
-            try {
-                guilds = Server.getInstance().getOAuth2Client().getGuilds(sessionContainer.getSession()).complete();
+            if (guildListContainer != null) {
+                guilds = guildListContainer.getGuilds();
 
                 if (permissionFilter)
-                    guilds.removeIf(oAuth2Guild -> !oAuth2Guild.hasPermission(Permission.ADMINISTRATOR));
-            } catch (Exception ignore) {
+                    guilds = guilds.stream().filter(oAuth2Guild -> oAuth2Guild.hasPermission(Permission.ADMINISTRATOR)).toList();
             }
 
-            if (guilds == null) return Optional.empty();
-
             return Optional.of(guilds.stream().map(GuildContainer::new).toList());
         });
     }
+
+    /**
+     * Key of a Session lookup within a request.
+     *
+     * @param identifier Identifier to identify the Session.
+     */
+    private record SessionKey(String identifier) {
+    }
+
+    /**
+     * Key of a Guild lookup, used to share concurrent lookups with the same parameters.
+     *
+     * @param identifier       Identifier to identify the Session.
+     * @param guildId          Guild ID to identify the Guild.
+     * @param retrieveChannels If the Channels should be retrieved.
+     * @param retrieveRoles    If the Roles should be retrieved.
+     * @param permissionCheck  If the Permission should be checked.
+     */
+    private record GuildKey(String identifier, long guildId, boolean retrieveChannels, boolean retrieveRoles, boolean permissionCheck) {
+    }
 }
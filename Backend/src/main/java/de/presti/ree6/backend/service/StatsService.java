@@ -0,0 +1,109 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.presti.ree6.backend.utils.MetamodelUtil;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.CommandStatsContainer;
+import de.presti.ree6.backend.utils.data.container.guild.GuildStatsContainer;
+import de.presti.ree6.sql.entities.Invite;
+import de.presti.ree6.sql.entities.stats.GuildCommandStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Service meant to retrieve the statistics of Guilds with count and projection queries, instead of loading every entity.
+ * The queried attributes are resolved through the metamodel, so an entity that doesn't match fails instead of falling back.
+ */
+@Service
+public class StatsService {
+
+    /**
+     * The shared Entity Manager.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Short-lived cache of the statistics, keyed by the Guild ID.
+     * Invites and command statistics are only written by the bot, so cached statistics expire by time only.
+     */
+    private final Cache<Long, GuildStatsContainer> statsCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Data.getStatsCacheExpire())
+            .build();
+
+    /**
+     * Constructor for the Stats Service.
+     *
+     * @param entityManager the shared Entity Manager.
+     */
+    @Autowired
+    public StatsService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Retrieve the statistics of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the statistics.
+     */
+    public Mono<GuildStatsContainer> retrieveStats(long guildId) {
+        return Mono.fromSupplier(() -> statsCache.get(guildId, key -> new GuildStatsContainer(countInvites(key), loadCommandStats(key))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Count the tracked Invites of a Guild.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the amount of Invites.
+     * @throws IllegalStateException if the Invite entity lacks one of the queried attributes.
+     */
+    private long countInvites(long guildId) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Invite> root = query.from(Invite.class);
+
+        query.select(criteriaBuilder.count(root))
+                .where(criteriaBuilder.equal(root.get(MetamodelUtil.attribute(root.getModel(), "guild", Long.class)), guildId));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Load the command statistics of a Guild, only selecting the command and its uses.
+     *
+     * @param guildId the ID of the Guild.
+     * @return the command statistics, ordered by their uses.
+     * @throws IllegalStateException if the GuildCommandStats entity lacks one of the queried attributes.
+     */
+    private List<CommandStatsContainer> loadCommandStats(long guildId) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<GuildCommandStats> root = query.from(GuildCommandStats.class);
+        EntityType<GuildCommandStats> model = root.getModel();
+
+        Path<String> command = root.get(MetamodelUtil.attribute(model, "command", String.class));
+        Path<Long> uses = root.get(MetamodelUtil.attribute(model, "uses", Long.class));
+
+        query.multiselect(command, uses)
+                .where(criteriaBuilder.equal(root.get(MetamodelUtil.attribute(model, "guildId", Long.class)), guildId))
+                .orderBy(criteriaBuilder.desc(uses));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> new CommandStatsContainer(tuple.get(command), tuple.get(uses)))
+                .toList();
+    }
+}
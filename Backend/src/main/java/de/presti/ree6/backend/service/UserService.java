@@ -0,0 +1,156 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Service meant to resolve the profiles of Users in bulk.
+ */
+@Slf4j
+@Service
+public class UserService {
+
+    /**
+     * The maximum amount of Members Discord returns for a single request.
+     */
+    private static final int CHUNK_SIZE = 100;
+
+    /**
+     * Short-lived cache of resolved User profiles, keyed by the User ID.
+     */
+    private final Cache<Long, UserContainer> profileCache;
+
+    /**
+     * Short-lived cache of Users that aren't Members of a Guild anymore, so they aren't requested from Discord on every lookup.
+     */
+    private final Cache<MemberKey, Boolean> departedCache;
+
+    /**
+     * How long retrieving a chunk of Members may take.
+     */
+    private final Duration retrieveTimeout;
+
+    /**
+     * Constructor for the User Service.
+     */
+    public UserService() {
+        this(Data.getUserCacheExpire(), Data.getUserRetrieveTimeout());
+    }
+
+    /**
+     * Constructor for the User Service.
+     *
+     * @param expire          after how long resolved profiles and departed Users expire.
+     * @param retrieveTimeout how long retrieving a chunk of Members may take.
+     */
+    UserService(Duration expire, Duration retrieveTimeout) {
+        this.profileCache = Caffeine.newBuilder().maximumSize(100000).expireAfterWrite(expire).build();
+        this.departedCache = Caffeine.newBuilder().maximumSize(100000).expireAfterWrite(expire).build();
+        this.retrieveTimeout = retrieveTimeout;
+    }
+
+    /**
+     * Resolve the profiles of Users of a Guild.
+     * Profiles are served from the profile cache and the JDA cache first, the remaining ones are retrieved as Members
+     * in chunks of {@value #CHUNK_SIZE}. Users that couldn't be resolved at all, e.g. because they left the Guild,
+     * are returned with their ID only. Users Discord didn't return as Members aren't requested again until they expire,
+     * chunks that failed or timed out are.
+     *
+     * @param guild   the Guild or null, if the bot isn't in it and the profiles can only be served from the caches.
+     * @param userIds the IDs of the Users.
+     * @return the profiles, mapped by the User ID.
+     */
+    public Map<Long, UserContainer> retrieveUsers(Guild guild, Collection<Long> userIds) {
+        Map<Long, UserContainer> users = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (long userId : new LinkedHashSet<>(userIds)) {
+            UserContainer userContainer = profileCache.getIfPresent(userId);
+
+            if (userContainer == null) {
+                Member member = guild != null ? guild.getMemberById(userId) : null;
+                User user = member != null ? member.getUser() : BotWorker.getShardManager().getUserById(userId);
+
+                if (user != null) {
+                    userContainer = new UserContainer(user);
+                    profileCache.put(userId, userContainer);
+                }
+            }
+
+            if (userContainer != null) {
+                users.put(userId, userContainer);
+            } else if (guild == null || departedCache.getIfPresent(new MemberKey(guild.getIdLong(), userId)) == null) {
+                missing.add(userId);
+            }
+        }
+
+        for (int i = 0; guild != null && i < missing.size(); i += CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(i, Math.min(i + CHUNK_SIZE, missing.size()));
+
+            try {
+                for (Member member : guild.retrieveMembersByIds(chunk).setTimeout(retrieveTimeout).get()) {
+                    UserContainer userContainer = new UserContainer(member.getUser());
+                    profileCache.put(member.getIdLong(), userContainer);
+                    users.put(member.getIdLong(), userContainer);
+                }
+
+                for (long userId : chunk) {
+                    if (!users.containsKey(userId)) {
+                        departedCache.put(new MemberKey(guild.getIdLong(), userId), Boolean.TRUE);
+                    }
+                }
+            } catch (Exception ex) {
+                log.debug("Could not retrieve Members of {}", guild.getId(), ex);
+            }
+        }
+
+        for (long userId : userIds) {
+            users.computeIfAbsent(userId, id -> new UserContainer(id, "Unknown User", "0", Data.defaultIconUrl));
+        }
+
+        return users;
+    }
+
+    /**
+     * Resolve the profiles of Users of a Guild by its ID.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userIds the IDs of the Users.
+     * @return the profiles, mapped by the User ID.
+     * @see #retrieveUsers(Guild, Collection)
+     */
+    public Map<Long, UserContainer> retrieveUsers(long guildId, Collection<Long> userIds) {
+        return retrieveUsers(BotWorker.getShardManager().getGuildById(guildId), userIds);
+    }
+
+    /**
+     * Resolve the profile of a single User of a Guild.
+     *
+     * @param guild  the Guild.
+     * @param userId the ID of the User.
+     * @return the profile.
+     */
+    public UserContainer retrieveUser(Guild guild, long userId) {
+        return retrieveUsers(guild, List.of(userId)).get(userId);
+    }
+
+    /**
+     * Key of a Member.
+     *
+     * @param guildId the ID of the Guild.
+     * @param userId  the ID of the User.
+     */
+    private record MemberKey(long guildId, long userId) {
+    }
+}
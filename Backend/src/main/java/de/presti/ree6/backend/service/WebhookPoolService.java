@@ -0,0 +1,236 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service meant to share one Ree6 owned Webhook per channel between the log, welcome, ticket and notifier features.
+ * Every feature using a pooled Webhook holds a reference on it, which is stored in the Database.
+ * The Webhook is only created when the first reference is acquired and only deleted when the last one is released.
+ * Acquiring a pooled Webhook sends no request to Discord. Webhooks deleted in Discord are dropped from the pool lazily,
+ * once a Webhook snapshot of their Guild no longer contains them or their channel has been deleted.
+ */
+@Slf4j
+@Service
+public class WebhookPoolService extends ListenerAdapter {
+
+    /**
+     * Name of the Table used to store the pooled Webhooks.
+     */
+    private static final String TABLE = "WebinterfaceWebhookPool";
+
+    /**
+     * Name of the pooled Webhooks in Discord.
+     */
+    private static final String WEBHOOK_NAME = "Ree6";
+
+    /**
+     * Webhook Service, used to invalidate the Webhook snapshots after a Webhook has been created or deleted.
+     */
+    private final WebhookService webhookService;
+
+    /**
+     * Locks used to prevent creating two Webhooks for the same channel at once, keyed by the channel ID.
+     * The locks are weakly referenced, so only the ones currently held stay in memory.
+     */
+    private final LoadingCache<Long, Object> channelLocks = Caffeine.newBuilder()
+            .weakValues()
+            .build(key -> new Object());
+
+    /**
+     * Constructor for the Webhook Pool Service.
+     *
+     * @param webhookService Webhook Service, used to invalidate the Webhook snapshots.
+     */
+    @Autowired
+    public WebhookPoolService(WebhookService webhookService) {
+        this.webhookService = webhookService;
+        createTable();
+        webhookService.addSnapshotListener(this::prune);
+
+        if (BotWorker.getShardManager() != null) {
+            BotWorker.getShardManager().addEventListener(this);
+        } else {
+            log.warn("ShardManager not available, pooled Webhooks of deleted channels are only dropped by Webhook snapshots!");
+        }
+    }
+
+    /**
+     * Acquire a reference on the pooled Webhook of a channel.
+     * If the channel already has a pooled Webhook it is reused without a request to Discord, otherwise it is created.
+     *
+     * @param channel the channel.
+     * @return the pooled Webhook.
+     */
+    public PooledWebhook acquire(StandardGuildMessageChannel channel) {
+        synchronized (channelLocks.get(channel.getIdLong())) {
+            try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE " + TABLE + " SET refs = refs + 1 WHERE channelId = ?")) {
+                    statement.setLong(1, channel.getIdLong());
+
+                    if (statement.executeUpdate() > 0) {
+                        PooledWebhook pooledWebhook = find(connection, channel.getIdLong());
+                        if (pooledWebhook != null) return pooledWebhook;
+                    }
+                }
+
+                Webhook webhook = channel.createWebhook(WEBHOOK_NAME).complete();
+                webhookService.invalidate(channel.getGuild().getIdLong());
+
+                try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + TABLE +
+                        " (channelId, guildId, webhookId, token, refs) VALUES (?, ?, ?, ?, 1)")) {
+                    statement.setLong(1, channel.getIdLong());
+                    statement.setLong(2, channel.getGuild().getIdLong());
+                    statement.setLong(3, webhook.getIdLong());
+                    statement.setString(4, webhook.getToken());
+                    statement.executeUpdate();
+                } catch (SQLException exception) {
+                    // Another instance pooled a Webhook for this channel in the meantime.
+                    log.debug("Could not pool Webhook of {}, using it without the pool", channel.getId(), exception);
+                }
+
+                return new PooledWebhook(channel.getIdLong(), webhook.getIdLong(), webhook.getToken());
+            } catch (SQLException exception) {
+                log.error("Could not acquire pooled Webhook", exception);
+                Webhook webhook = channel.createWebhook(WEBHOOK_NAME).complete();
+                webhookService.invalidate(channel.getGuild().getIdLong());
+                return new PooledWebhook(channel.getIdLong(), webhook.getIdLong(), webhook.getToken());
+            }
+        }
+    }
+
+    /**
+     * Release a reference on a Webhook.
+     * The Webhook is deleted once no feature references it anymore.
+     * Webhooks that are not part of the pool, e.g. because they were created before it existed, are deleted right away.
+     *
+     * @param guild     the Guild of the Webhook.
+     * @param webhookId the ID of the Webhook.
+     */
+    public void release(Guild guild, long webhookId) {
+        if (webhookId == 0) return;
+
+        boolean delete = true;
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("UPDATE " + TABLE + " SET refs = refs - 1 WHERE webhookId = ?")) {
+                statement.setLong(1, webhookId);
+
+                if (statement.executeUpdate() > 0) {
+                    try (PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE webhookId = ? AND refs <= 0")) {
+                        deleteStatement.setLong(1, webhookId);
+                        delete = deleteStatement.executeUpdate() > 0;
+                    }
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not release pooled Webhook", exception);
+            return;
+        }
+
+        if (delete) {
+            guild.getJDA().retrieveWebhookById(webhookId).flatMap(Webhook::delete).queue(
+                    success -> webhookService.invalidate(guild.getIdLong()),
+                    failure -> log.debug("Could not delete Webhook {}", webhookId, failure));
+        }
+    }
+
+    /**
+     * Drop the pooled Webhooks of a Guild that are missing from its Webhook snapshot, since they have been deleted in Discord.
+     * Their references are dropped with them, the features holding them keep the deleted Webhook until they are configured again,
+     * which acquires a new one. Webhooks created after the snapshot has been requested are kept.
+     *
+     * @param guildId     the ID of the Guild.
+     * @param webhookIds  the IDs of the Webhooks in the snapshot.
+     * @param requestedAt the time in milliseconds the snapshot has been requested at.
+     */
+    private void prune(long guildId, Set<Long> webhookIds, long requestedAt) {
+        String existing = webhookIds.isEmpty() ? "" : " AND webhookId NOT IN (" + webhookIds.stream().map(String::valueOf).collect(Collectors.joining(", ")) + ")";
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE guildId = ? AND webhookId < ?" + existing)) {
+            statement.setLong(1, guildId);
+            statement.setLong(2, TimeUtil.getDiscordTimestamp(requestedAt));
+
+            int pruned = statement.executeUpdate();
+            if (pruned > 0) {
+                log.debug("Dropped {} deleted Webhooks of {} from the pool", pruned, guildId);
+            }
+        } catch (SQLException exception) {
+            log.error("Could not drop deleted Webhooks from the pool", exception);
+        }
+    }
+
+    @Override
+    public void onChannelDelete(@NotNull ChannelDeleteEvent event) {
+        // Discord deletes the Webhooks of a channel with it.
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE channelId = ?")) {
+            statement.setLong(1, event.getChannel().getIdLong());
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            log.error("Could not drop the pooled Webhook of a deleted channel", exception);
+        }
+    }
+
+    /**
+     * Find the pooled Webhook of a channel.
+     *
+     * @param connection the Database connection.
+     * @param channelId  the ID of the channel.
+     * @return the pooled Webhook or null, if there is none.
+     * @throws SQLException if the Webhook couldn't be loaded.
+     */
+    private PooledWebhook find(Connection connection, long channelId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT webhookId, token FROM " + TABLE + " WHERE channelId = ?")) {
+            statement.setLong(1, channelId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? new PooledWebhook(channelId, resultSet.getLong("webhookId"), resultSet.getString("token")) : null;
+            }
+        }
+    }
+
+    /**
+     * Create the Table used to store the pooled Webhooks, if it doesn't exist yet.
+     */
+    private void createTable() {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (channelId BIGINT NOT NULL PRIMARY KEY, guildId BIGINT, " +
+                    "webhookId BIGINT, token VARCHAR(255), refs BIGINT)");
+        } catch (SQLException exception) {
+            log.error("Could not create the Webhook Pool Table", exception);
+        }
+    }
+
+    /**
+     * A Webhook of the pool.
+     *
+     * @param channelId the ID of the channel the Webhook posts to.
+     * @param webhookId the ID of the Webhook.
+     * @param token     the token of the Webhook.
+     */
+    public record PooledWebhook(long channelId, long webhookId, String token) {
+    }
+}
@@ -0,0 +1,141 @@
+package de.presti.ree6.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.presti.ree6.backend.utils.data.Data;
+import de.presti.ree6.backend.utils.data.container.ChannelContainer;
+import de.presti.ree6.backend.utils.data.container.NotifierContainer;
+import de.presti.ree6.sql.entities.webhook.Webhook;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service meant to resolve the Discord Webhooks of Guilds.
+ */
+@Slf4j
+@Service
+public class WebhookService {
+
+    /**
+     * Short-lived snapshot of the Webhooks of a Guild, mapped by their ID and keyed by the Guild ID.
+     */
+    private final Cache<Long, Map<Long, net.dv8tion.jda.api.entities.Webhook>> webhookCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Data.getWebhookCacheExpire())
+            .build();
+
+    /**
+     * Listeners told about every freshly loaded snapshot.
+     */
+    private final List<SnapshotListener> snapshotListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Retrieve the Webhooks of a Guild from the snapshot, concurrent lookups of the same Guild share a single request to Discord.
+     *
+     * @param guild the Guild.
+     * @return the Webhooks of the Guild, mapped by their ID.
+     */
+    public Map<Long, net.dv8tion.jda.api.entities.Webhook> retrieveWebhooks(Guild guild) {
+        return webhookCache.get(guild.getIdLong(), key -> {
+            try {
+                long requestedAt = System.currentTimeMillis();
+                Map<Long, net.dv8tion.jda.api.entities.Webhook> webhooks = guild.retrieveWebhooks().complete().stream()
+                        .collect(Collectors.toUnmodifiableMap(net.dv8tion.jda.api.entities.Webhook::getIdLong, Function.identity(), (a, b) -> a));
+                snapshotListeners.forEach(listener -> listener.onSnapshot(key, webhooks.keySet(), requestedAt));
+                return webhooks;
+            } catch (Exception ex) {
+                log.debug(ex.getMessage(), ex);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Register a listener told about every freshly loaded snapshot, e.g. to notice Webhooks that have been deleted in Discord.
+     *
+     * @param listener the listener.
+     */
+    public void addSnapshotListener(SnapshotListener listener) {
+        snapshotListeners.add(listener);
+    }
+
+    /**
+     * Invalidate the Webhook snapshot of a Guild, should be called after a Webhook has been created or deleted.
+     *
+     * @param guildId the ID of the Guild.
+     */
+    public void invalidate(long guildId) {
+        webhookCache.invalidate(guildId);
+    }
+
+    /**
+     * Resolve the Channel a stored Webhook posts to.
+     * The stored Channel ID is used if there is one, otherwise the Webhook is looked up in the snapshot of the Guild.
+     *
+     * @param guild    the Guild.
+     * @param webhook  the stored Webhook.
+     * @param webhooks the Webhooks of the Guild, mapped by their ID.
+     * @return the Channel or null, if it couldn't be resolved.
+     */
+    public ChannelContainer resolveChannel(Guild guild, Webhook webhook, Map<Long, net.dv8tion.jda.api.entities.Webhook> webhooks) {
+        if (webhook.getChannelId() != 0) {
+            GuildChannel guildChannel = guild.getGuildChannelById(webhook.getChannelId());
+            if (guildChannel != null) {
+                return new ChannelContainer(guildChannel);
+            }
+        }
+
+        net.dv8tion.jda.api.entities.Webhook discordWebhook = webhooks.get(webhook.getWebhookId());
+        return discordWebhook != null ? new ChannelContainer(discordWebhook) : null;
+    }
+
+    /**
+     * Convert stored notifier Webhooks into {@link NotifierContainer}, with a single Webhook lookup for all of them.
+     *
+     * @param guild         the Guild.
+     * @param notifiers     the stored notifier Webhooks.
+     * @param nameMapper    the function used to get the name of the notifier.
+     * @param messageMapper the function used to get the message of the notifier.
+     * @param <T>           the type of the stored Webhooks.
+     * @return the Notifier Containers.
+     */
+    public <T extends Webhook> List<NotifierContainer> toNotifierContainers(Guild guild, List<T> notifiers, Function<T, String> nameMapper, Function<T, String> messageMapper) {
+        if (notifiers == null || notifiers.isEmpty()) return Collections.emptyList();
+
+        Map<Long, net.dv8tion.jda.api.entities.Webhook> webhooks = notifiers.stream().allMatch(webhook -> webhook.getChannelId() != 0) ?
+                Collections.emptyMap() : retrieveWebhooks(guild);
+
+        Map<Long, net.dv8tion.jda.api.entities.Webhook> resolvedWebhooks = webhooks != null ? webhooks : Collections.emptyMap();
+
+        return notifiers.stream()
+                .map(webhook -> new NotifierContainer(nameMapper.apply(webhook), messageMapper.apply(webhook), resolveChannel(guild, webhook, resolvedWebhooks)))
+                .toList();
+    }
+
+    /**
+     * Listener told about every freshly loaded Webhook snapshot of a Guild.
+     */
+    @FunctionalInterface
+    public interface SnapshotListener {
+
+        /**
+         * Called once a snapshot has been loaded.
+         * Webhooks created after the snapshot has been requested may be missing from it.
+         *
+         * @param guildId     the ID of the Guild.
+         * @param webhookIds  the IDs of the Webhooks of the Guild.
+         * @param requestedAt the time in milliseconds the snapshot has been requested at.
+         */
+        void onSnapshot(long guildId, Set<Long> webhookIds, long requestedAt);
+    }
+}
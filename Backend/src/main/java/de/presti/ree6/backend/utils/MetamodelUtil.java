@@ -0,0 +1,50 @@
+package de.presti.ree6.backend.utils;
+
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.util.ClassUtils;
+
+/**
+ * This util class is used to resolve the attributes of Ree6-SQL entities through the metamodel,
+ * so queries against an entity that doesn't match fail instead of silently returning other data.
+ */
+public class MetamodelUtil {
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private MetamodelUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Resolve an attribute of an entity and check its type.
+     *
+     * @param model the metamodel of the entity.
+     * @param name  the name of the attribute.
+     * @param type  the expected type, primitive attributes match their wrapper.
+     * @param <E>   the entity.
+     * @param <T>   the expected type.
+     * @return the attribute.
+     * @throws IllegalStateException if there is no such attribute or it has another type.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E, T> SingularAttribute<? super E, T> attribute(EntityType<E> model, String name, Class<T> type) {
+        SingularAttribute<? super E, ?> attribute;
+
+        try {
+            attribute = model.getSingularAttribute(name);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalStateException("The " + model.getName() + " entity has no attribute " + name, exception);
+        }
+
+        if (!type.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(attribute.getJavaType()))) {
+            throw new IllegalStateException("The attribute " + name + " of the " + model.getName() + " entity is a "
+                    + attribute.getJavaType().getName() + ", not a " + type.getName());
+        }
+
+        return (SingularAttribute<? super E, T>) attribute;
+    }
+}
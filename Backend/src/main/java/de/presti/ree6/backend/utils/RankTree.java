@@ -0,0 +1,272 @@
+package de.presti.ree6.backend.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic tree (a treap), used to rank IDs by their score.
+ * Entries are ordered by their score descending and by their ID ascending on ties,
+ * every operation except {@link #update(Map)} runs in expected O(log n).
+ */
+public class RankTree {
+
+    /**
+     * The current score of every ID in the tree.
+     */
+    private final Map<Long, Long> scores = new HashMap<>();
+
+    /**
+     * The root node of the tree.
+     */
+    private Node root;
+
+    /**
+     * Insert an ID or update its score.
+     *
+     * @param id    the ID.
+     * @param score the score of the ID.
+     */
+    public synchronized void put(long id, long score) {
+        Long previous = scores.put(id, score);
+
+        if (previous != null) {
+            if (previous == score) return;
+
+            root = remove(root, previous, id);
+        }
+
+        Node[] parts = split(root, score, id);
+        root = merge(merge(parts[0], new Node(id, score)), parts[1]);
+    }
+
+    /**
+     * Remove an ID from the tree.
+     *
+     * @param id the ID.
+     */
+    public synchronized void remove(long id) {
+        Long score = scores.remove(id);
+
+        if (score != null) {
+            root = remove(root, score, id);
+        }
+    }
+
+    /**
+     * Get the current score of an ID.
+     *
+     * @param id the ID.
+     * @return the score or null, if the ID is not in the tree.
+     */
+    public synchronized Long score(long id) {
+        return scores.get(id);
+    }
+
+    /**
+     * Get the zero-based rank of an ID.
+     *
+     * @param id the ID.
+     * @return the rank or -1, if the ID is not in the tree.
+     */
+    public synchronized int rank(long id) {
+        Long score = scores.get(id);
+        return score != null ? countBefore(score, id) : -1;
+    }
+
+    /**
+     * Count the entries that are ordered before the given position.
+     *
+     * @param score the score of the position.
+     * @param id    the ID of the position.
+     * @return the amount of entries ordered before it.
+     */
+    public synchronized int countBefore(long score, long id) {
+        int count = 0;
+        Node node = root;
+
+        while (node != null) {
+            if (compare(node.score, node.id, score, id) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the IDs of a range of ranks.
+     *
+     * @param offset the zero-based rank to start at.
+     * @param limit  the maximal amount of IDs.
+     * @return the IDs, ordered by their rank.
+     */
+    public synchronized long[] range(int offset, int limit) {
+        int end = Math.min(size(root), offset + limit);
+
+        if (offset >= end) return new long[0];
+
+        long[] ids = new long[end - offset];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = select(offset + i).id;
+        }
+
+        return ids;
+    }
+
+    /**
+     * Apply a complete set of scores, only IDs which were added, changed or are missing are touched.
+     *
+     * @param scores the score of every ID which should be in the tree.
+     */
+    public synchronized void update(Map<Long, Long> scores) {
+        for (Long id : new ArrayList<>(this.scores.keySet())) {
+            if (!scores.containsKey(id)) {
+                remove(id);
+            }
+        }
+
+        scores.forEach(this::put);
+    }
+
+    /**
+     * Get the amount of entries in the tree.
+     *
+     * @return the amount of entries.
+     */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Find the node of a zero-based rank.
+     *
+     * @param index the rank.
+     * @return the node.
+     */
+    private Node select(int index) {
+        Node node = root;
+
+        while (true) {
+            int leftSize = size(node.left);
+
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Split a tree into the entries ordered before the given position and all others.
+     *
+     * @param node  the root of the tree.
+     * @param score the score of the position.
+     * @param id    the ID of the position.
+     * @return both trees, the lower one first.
+     */
+    private Node[] split(Node node, long score, long id) {
+        if (node == null) return new Node[2];
+
+        if (compare(node.score, node.id, score, id) < 0) {
+            Node[] parts = split(node.right, score, id);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        } else {
+            Node[] parts = split(node.left, score, id);
+            node.left = parts[1];
+            update(node);
+            return new Node[]{parts[0], node};
+        }
+    }
+
+    /**
+     * Merge two trees, where every entry of the first one is ordered before the entries of the second one.
+     *
+     * @param lower the lower tree.
+     * @param upper the upper tree.
+     * @return the merged tree.
+     */
+    private Node merge(Node lower, Node upper) {
+        if (lower == null) return upper;
+        if (upper == null) return lower;
+
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            update(lower);
+            return lower;
+        } else {
+            upper.left = merge(lower, upper.left);
+            update(upper);
+            return upper;
+        }
+    }
+
+    /**
+     * Remove an entry from a tree.
+     *
+     * @param node  the root of the tree.
+     * @param score the score of the entry.
+     * @param id    the ID of the entry.
+     * @return the new root of the tree.
+     */
+    private Node remove(Node node, long score, long id) {
+        if (node == null) return null;
+
+        int comparison = compare(score, id, node.score, node.id);
+
+        if (comparison == 0) return merge(node.left, node.right);
+
+        if (comparison < 0) {
+            node.left = remove(node.left, score, id);
+        } else {
+            node.right = remove(node.right, score, id);
+        }
+
+        update(node);
+        return node;
+    }
+
+    /**
+     * Compare two positions, higher scores come first and lower IDs on ties.
+     */
+    private static int compare(long score, long id, long otherScore, long otherId) {
+        int comparison = Long.compare(otherScore, score);
+        return comparison != 0 ? comparison : Long.compare(id, otherId);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * A node of the tree.
+     */
+    private static final class Node {
+        final long id;
+        final long score;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long id, long score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
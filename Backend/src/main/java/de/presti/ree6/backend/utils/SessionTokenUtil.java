@@ -0,0 +1,146 @@
+package de.presti.ree6.backend.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.presti.ree6.backend.utils.data.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * A utility class used to issue and verify signed stateless Session Tokens.
+ * A Token has the format {@code ree6.<payload>.<signature>}, where the payload is the Base64-URL encoded JSON of a {@link SessionToken}
+ * and the signature is the Base64-URL encoded HMAC-SHA256 of the encoded payload.
+ */
+@Slf4j
+public class SessionTokenUtil {
+
+    /**
+     * Prefix of every Token, used to tell Tokens and plain Session Identifiers apart.
+     */
+    private static final String PREFIX = "ree6.";
+
+    /**
+     * Algorithm used to sign the Tokens.
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Object Mapper used to (de)serialize the payload.
+     */
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The key used to sign the Tokens.
+     */
+    private static SecretKeySpec secretKey;
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     * @throws IllegalStateException it is a utility class.
+     */
+    private SessionTokenUtil() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Check if the given String looks like a Token.
+     *
+     * @param value the value sent by the client.
+     * @return true, if it is a Token | false, if it is a plain Session Identifier.
+     */
+    public static boolean isToken(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    /**
+     * Issue a new signed Token.
+     *
+     * @param sessionToken the content of the Token.
+     * @return the signed Token.
+     */
+    public static String issue(SessionToken sessionToken) {
+        try {
+            String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(sessionToken));
+            return PREFIX + payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(payload));
+        } catch (Exception ex) {
+            throw new IllegalStateException("Could not issue Session Token!", ex);
+        }
+    }
+
+    /**
+     * Verify the signature and the expiry of a Token.
+     *
+     * @param token the Token sent by the client.
+     * @return the content of the Token or null, if it is invalid or expired.
+     */
+    public static SessionToken verify(String token) {
+        if (!isToken(token)) return null;
+
+        String[] parts = token.substring(PREFIX.length()).split("\\.");
+        if (parts.length != 2) return null;
+
+        try {
+            if (!MessageDigest.isEqual(sign(parts[0]), Base64.getUrlDecoder().decode(parts[1]))) {
+                return null;
+            }
+
+            SessionToken sessionToken = objectMapper.readValue(Base64.getUrlDecoder().decode(parts[0]), SessionToken.class);
+            return sessionToken.expiresAt() > System.currentTimeMillis() ? sessionToken : null;
+        } catch (Exception ex) {
+            log.debug(ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Sign the given payload.
+     *
+     * @param payload the encoded payload.
+     * @return the signature.
+     * @throws Exception if the Mac couldn't be created.
+     */
+    private static byte[] sign(String payload) throws Exception {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(getSecretKey());
+        return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the key used to sign the Tokens.
+     * If no secret has been configured a random one is created, which means Tokens do not survive a restart.
+     *
+     * @return the key.
+     */
+    private static synchronized SecretKeySpec getSecretKey() {
+        if (secretKey == null) {
+            String secret = Data.getTokenSecret();
+
+            if (secret == null || secret.isBlank()) {
+                log.warn("No Token secret configured, using a random one. Issued Tokens will be invalid after a restart!");
+                secret = RandomUtils.getRandomBase64String(64);
+            }
+
+            secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        }
+
+        return secretKey;
+    }
+
+    /**
+     * Content of a Session Token.
+     *
+     * @param identifier    the Identifier of the underlying Session.
+     * @param userId        the ID of the User.
+     * @param name          the name of the User.
+     * @param discriminator the discriminator of the User.
+     * @param avatarUrl     the avatar URL of the User.
+     * @param version       the Session version of the User, used to revoke Tokens.
+     * @param expiresAt     the time the Token expires at, in milliseconds.
+     */
+    public record SessionToken(String identifier, long userId, String name, String discriminator, String avatarUrl, int version, long expiresAt) {
+    }
+}
@@ -0,0 +1,95 @@
+package de.presti.ree6.backend.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Utility class used to coalesce concurrent calls for the same key into a single in-flight {@link Mono}.
+ *
+ * @param <K> the type of the key.
+ * @param <V> the type of the value.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * The currently running calls, mapped by their key.
+     */
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Counter of the calls that actually have been executed.
+     */
+    private final Counter executedCounter;
+
+    /**
+     * Counter of the calls that have been served by an already running call.
+     */
+    private final Counter coalescedCounter;
+
+    /**
+     * Create a new SingleFlight instance.
+     *
+     * @param meterRegistry the {@link MeterRegistry} used to publish the metrics.
+     * @param name          the name used to tag the metrics.
+     */
+    public SingleFlight(MeterRegistry meterRegistry, String name) {
+        executedCounter = Counter.builder("webinterface.singleflight.calls").tag("name", name).tag("result", "executed")
+                .description("Calls that have been executed").register(meterRegistry);
+        coalescedCounter = Counter.builder("webinterface.singleflight.calls").tag("name", name).tag("result", "coalesced")
+                .description("Calls that joined an already running call").register(meterRegistry);
+    }
+
+    /**
+     * Execute the call for the given key or join the already running call for it.
+     *
+     * @param key      the key of the call.
+     * @param supplier the supplier of the call, only used if there is no running call for the key.
+     * @return the {@link Mono} shared by all callers of the key.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> supplier) {
+        return Mono.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean(false);
+
+            Mono<V> mono = inFlight.computeIfAbsent(key, k -> {
+                created.set(true);
+
+                AtomicReference<Mono<V>> reference = new AtomicReference<>();
+                reference.set(supplier.get().doFinally(signalType -> inFlight.remove(k, reference.get())).cache());
+                return reference.get();
+            });
+
+            if (created.get()) {
+                executedCounter.increment();
+            } else {
+                coalescedCounter.increment();
+            }
+
+            return mono;
+        });
+    }
+
+    /**
+     * Get the amount of calls that have been executed.
+     *
+     * @return the amount of executed calls.
+     */
+    public long getExecutedCount() {
+        return (long) executedCounter.count();
+    }
+
+    /**
+     * Get the amount of calls that have been served by an already running call.
+     *
+     * @return the amount of coalesced calls.
+     */
+    public long getCoalescedCount() {
+        return (long) coalescedCounter.count();
+    }
+}
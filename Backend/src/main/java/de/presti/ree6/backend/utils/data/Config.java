@@ -101,7 +101,10 @@ public class Config {
                     .path("client").comment("OAuth Configuration").blankLine()
                     .path("id").addDefault(0).commentSide("Client ID of the Discord Application.")
                     .parent().path("secret").addDefault("yourDiscordClientSecrethere").commentSide("Client Secret of the Discord Application.")
-                    .parent().path("shards").addDefault(1).commentSide("The shard amount of the Bot. Check out https://anidiots.guide/understanding/sharding/#sharding for more information.");
+                    .parent().path("shards").addDefault(1).commentSide("The shard amount of the Bot. Check out https://anidiots.guide/understanding/sharding/#sharding for more information.")
+                    .parent().parent().path("ratelimit").comment("Rate-Limit Configuration of the OAuth requests").blankLine()
+                    .path("maxQueue").addDefault(50).commentSide("How many requests may wait for the same rate-limit bucket, before new ones fail?")
+                    .parent().path("maxWait").addDefault(2000).commentSide("How many milliseconds may a request wait for a rate-limit bucket, before it fails?");
 
             yamlFile.path("webinterface").comment("Basic Configurations for the Webinterface").blankLine()
                     .path("discordRedirect").addDefault("https://cp.ree6.de/login").commentSide("Redirect URL for Discord OAuth.")
@@ -110,10 +113,59 @@ public class Config {
                     .parent().path("loginRedirect").addDefault("https://cp.ree6.de/login").commentSide("Redirect URL if the user is not logged-in.")
                     .parent().path("allowedDomains").addDefault("https://*.ree6.de,http://localhost:[5173,8888]").commentSide("""
                             Domains that are allowed to request the backend.
-                            We recommend doing *.HOST.TLD, and then putting the backend behind something like API.HOST.TLD!""");
+                            We recommend doing *.HOST.TLD, and then putting the backend behind something like API.HOST.TLD!""")
+                    .parent().path("statelessTokens").addDefault(false).commentSide("Should signed Session Tokens be issued, so that requests can be authenticated without contacting Discord?")
+                    .parent().path("tokenSecret").addDefault("").commentSide("Secret used to sign the Session Tokens. If empty a random one is used, which invalidates all Tokens on restart.")
+                    .parent().path("tokenLifetime").addDefault(3600).commentSide("After how many seconds should a Session Token expire?");
 
             yamlFile.path("customization").comment("Settings to customize the Backend to your liking!").blankLine()
-                    .path("leaderboardTop").addDefault(5).commentSide("How many Users should be displayed on the Leaderboard?");
+                    .path("leaderboardTop").addDefault(5).commentSide("How many Users should be displayed on the Leaderboard?")
+                    .parent().path("leaderboardRefresh").addDefault(60).commentSide("In which interval (in seconds) should the Leaderboards be refreshed?")
+                    .parent().path("dashboardSectionTimeout").addDefault(3000).commentSide("How many milliseconds may a single section of the Dashboard take, before it is left out?");
+
+            yamlFile.path("recording").comment("Recording Configuration").blankLine()
+                    .path("downloads").comment("Recording Download Configuration").blankLine()
+                    .path("maxConcurrent").addDefault(4).commentSide("How many Recordings can be downloaded at the same time?")
+                    .parent().path("maxWait").addDefault(10).commentSide("How many seconds should a download wait for a free slot before it fails?")
+                    .parent().path("deleteDelay").addDefault(600).commentSide("How many seconds after its download should a Recording be deleted? Allows resuming the download.")
+                    .parent().parent().path("storage").comment("Recording Storage Configuration").blankLine()
+                    .path("type").addDefault("database").commentSide("Where should the audio of Recordings be kept? Either database or file, file moves existing Recordings out of the database and empties their blob.")
+                    .parent().path("path").addDefault("storage/recordings").commentSide("The directory the audio is stored in, if the file storage is used.")
+                    .parent().path("compression").addDefault("flac").commentSide("How should Recordings in the file storage be compressed? Either flac or none, flac also compresses files stored before it was enabled.")
+                    .parent().path("migrationBatch").addDefault(20).commentSide("How many Recordings should be moved out of the database at once?")
+                    .parent().path("migrationInterval").addDefault(60).commentSide("In which interval (in seconds) should Recordings be moved out of the database?")
+                    .parent().parent().path("index").comment("Recording Participant Index Configuration").blankLine()
+                    .path("interval").addDefault(30).commentSide("In which interval (in seconds) should new Recordings be added to the participant index?");
+
+            yamlFile.path("cache").comment("Cache Configuration, used to reduce the amount of requests sent to Discord.").blankLine()
+                    .path("session").comment("Session Cache Configuration").blankLine()
+                    .path("maxSize").addDefault(10000).commentSide("How many Sessions should be cached at most?")
+                    .parent().path("expire").addDefault(600).commentSide("After how many seconds should a cached Session expire?")
+                    .parent().path("refresh").addDefault(300).commentSide("After how many seconds should a cached Session be refreshed in the background?")
+                    .parent().parent().path("guilds").comment("Guild List Cache Configuration").blankLine()
+                    .path("expire").addDefault(30).commentSide("After how many seconds should the cached Guild List of a Session expire?")
+                    .parent().parent().path("sessionStore").comment("OAuth2 Session Store Configuration").blankLine()
+                    .path("type").addDefault("memory").commentSide("""
+                            Possible entries: memory, database. Use database to share Sessions between multiple instances and keep them over restarts.
+                            The database type needs an encryption key. Sessions stored without encryption can't be read and their Users have to log in again.""")
+                    .parent().path("encryptionKey").addDefault("").commentSide("Secret used to encrypt the OAuth2 tokens stored by the database type. Changing it logs every User out.")
+                    .parent().path("maxSize").addDefault(50000).commentSide("How many OAuth2 Sessions should be kept in memory at most? The least recently used ones are evicted first.")
+                    .parent().path("idle").addDefault(604800).commentSide("After how many seconds without use should an OAuth2 Session be evicted?")
+                    .parent().path("nearCacheExpire").addDefault(60).commentSide("After how many seconds should a Session cached in front of the database be reloaded? Only used by the database type.")
+                    .parent().path("flushInterval").addDefault(10).commentSide("In which interval (in seconds) should the usage of Sessions be written to the database? Only used by the database type.")
+                    .parent().parent().path("webhooks").comment("Webhook Cache Configuration").blankLine()
+                    .path("expire").addDefault(30).commentSide("After how many seconds should the cached Webhooks of a Guild expire?")
+                    .parent().parent().path("users").comment("User Profile Cache Configuration").blankLine()
+                    .path("expire").addDefault(300).commentSide("After how many seconds should a cached User profile expire? Users that left a Guild are remembered as long.")
+                    .parent().path("timeout").addDefault(5000).commentSide("How many milliseconds may retrieving User profiles from Discord take, before they are shown as unknown?")
+                    .parent().parent().path("permissions").comment("Permission Cache Configuration").blankLine()
+                    .path("expire").addDefault(300).commentSide("After how many seconds should a cached Permission decision expire? Role and Member changes invalidate it earlier.")
+                    .parent().parent().path("messages").comment("Message Cache Configuration").blankLine()
+                    .path("expire").addDefault(600).commentSide("After how many seconds should a cached Message expire? Edits and deletions invalidate it earlier.")
+                    .parent().parent().path("stats").comment("Stats Cache Configuration").blankLine()
+                    .path("expire").addDefault(60).commentSide("After how many seconds should the cached statistics of a Guild expire?")
+                    .parent().parent().path("leaderboards").comment("Leaderboard Rank Cache Configuration").blankLine()
+                    .path("maxEntries").addDefault(1000000).commentSide("How many ranked Users of all Leaderboards should be kept in memory at most?");
 
             try {
                 yamlFile.save(getFile());
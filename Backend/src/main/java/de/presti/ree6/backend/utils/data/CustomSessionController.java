@@ -0,0 +1,121 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagrosh.jdautilities.oauth2.Scope;
+import com.jagrosh.jdautilities.oauth2.session.Session;
+import com.jagrosh.jdautilities.oauth2.session.SessionController;
+import com.jagrosh.jdautilities.oauth2.session.SessionData;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Session Controller used by the OAuth2 Client, which keeps a bounded amount of Sessions in memory.
+ * Sessions are evicted once they have not been used for a while or the maximum size has been reached.
+ */
+public class CustomSessionController implements SessionController<CustomSessionController.CustomSession> {
+
+    /**
+     * The stored Sessions, keyed by their Identifier.
+     */
+    protected final Cache<String, CustomSession> sessions;
+
+    /**
+     * Create a new Session Controller and register its metrics.
+     */
+    public CustomSessionController() {
+        this(Caffeine.newBuilder()
+                .maximumSize(Data.getSessionStoreSize())
+                .expireAfterAccess(Data.getSessionStoreIdle())
+                .build());
+    }
+
+    /**
+     * Create a new Session Controller with the given Cache and register its metrics.
+     *
+     * @param sessions the Cache used to store the Sessions.
+     */
+    protected CustomSessionController(Cache<String, CustomSession> sessions) {
+        this.sessions = sessions;
+
+        Gauge.builder("webinterface.sessions.stored", sessions, Cache::estimatedSize)
+                .description("Amount of OAuth2 Sessions stored in memory")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Get a Session by its Identifier.
+     *
+     * @param identifier the Identifier of the Session.
+     * @return the Session or null, if there is none.
+     */
+    @Override
+    public CustomSession getSession(String identifier) {
+        return sessions.getIfPresent(identifier);
+    }
+
+    /**
+     * Create and store a new Session.
+     *
+     * @param data the Data of the Session.
+     * @return the created Session.
+     */
+    @Override
+    public CustomSession createSession(SessionData data) {
+        CustomSession session = new CustomSession(data.getIdentifier(), data.getAccessToken(), data.getRefreshToken(),
+                data.getTokenType(), data.getExpiration(), data.getScopes());
+        sessions.put(session.getIdentifier(), session);
+        return session;
+    }
+
+    /**
+     * Remove a Session.
+     *
+     * @param identifier the Identifier of the Session.
+     */
+    public void removeSession(String identifier) {
+        sessions.invalidate(identifier);
+    }
+
+    /**
+     * Session implementation used by the {@link CustomSessionController}.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CustomSession implements Session {
+
+        /**
+         * The Identifier of the Session.
+         */
+        private final String identifier;
+
+        /**
+         * The Access Token of the Session.
+         */
+        private final String accessToken;
+
+        /**
+         * The Refresh Token of the Session.
+         */
+        private final String refreshToken;
+
+        /**
+         * The Token Type of the Session.
+         */
+        private final String tokenType;
+
+        /**
+         * The Expiration of the Access Token.
+         */
+        private final OffsetDateTime expiration;
+
+        /**
+         * The Scopes of the Session.
+         */
+        private final Scope[] scopes;
+    }
+}
@@ -2,6 +2,8 @@ package de.presti.ree6.backend.utils.data;
 
 import de.presti.ree6.backend.Server;
 
+import java.time.Duration;
+
 /**
  * Utility class to save long term used Data.
  */
@@ -36,10 +38,142 @@ public class Data {
         return Server.getInstance().getConfig().getConfiguration().getString("webinterface.allowedDomains", "https://*.ree6.de,http://localhost:[5173,8888]");
     }
 
+    public static boolean isStatelessTokens() {
+        return Server.getInstance().getConfig().getConfiguration().getBoolean("webinterface.statelessTokens", false);
+    }
+
+    public static String getTokenSecret() {
+        return Server.getInstance().getConfig().getConfiguration().getString("webinterface.tokenSecret", "");
+    }
+
+    public static Duration getTokenLifetime() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("webinterface.tokenLifetime", 3600));
+    }
+
+    public static Duration getLeaderboardRefresh() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("customization.leaderboardRefresh", 60));
+    }
+
+    public static Duration getDashboardSectionTimeout() {
+        return Duration.ofMillis(Server.getInstance().getConfig().getConfiguration().getLong("customization.dashboardSectionTimeout", 3000));
+    }
+
     public static int getLeaderboardTop() {
         return Server.getInstance().getConfig().getConfiguration().getInt("customization.leaderboardTop", 5);
     }
 
+    public static int getSessionCacheSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.session.maxSize", 10000);
+    }
+
+    public static Duration getSessionCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.session.expire", 600));
+    }
+
+    public static Duration getSessionCacheRefresh() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.session.refresh", 300));
+    }
+
+    public static Duration getGuildCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.guilds.expire", 30));
+    }
+
+    public static int getSessionStoreSize() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("cache.sessionStore.maxSize", 50000);
+    }
+
+    public static Duration getSessionStoreIdle() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.sessionStore.idle", 604800));
+    }
+
+    public static String getSessionStoreType() {
+        return Server.getInstance().getConfig().getConfiguration().getString("cache.sessionStore.type", "memory");
+    }
+
+    public static String getSessionStoreEncryptionKey() {
+        return Server.getInstance().getConfig().getConfiguration().getString("cache.sessionStore.encryptionKey", "");
+    }
+
+    public static Duration getSessionStoreNearCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.sessionStore.nearCacheExpire", 60));
+    }
+
+    public static Duration getSessionStoreFlushInterval() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.sessionStore.flushInterval", 10));
+    }
+
+    public static int getRateLimitMaxQueue() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("discord.ratelimit.maxQueue", 50);
+    }
+
+    public static Duration getRateLimitMaxWait() {
+        return Duration.ofMillis(Server.getInstance().getConfig().getConfiguration().getLong("discord.ratelimit.maxWait", 2000));
+    }
+
+    public static Duration getWebhookCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.webhooks.expire", 30));
+    }
+
+    public static Duration getUserCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.users.expire", 300));
+    }
+
+    public static Duration getUserRetrieveTimeout() {
+        return Duration.ofMillis(Server.getInstance().getConfig().getConfiguration().getLong("cache.users.timeout", 5000));
+    }
+
+    public static Duration getPermissionCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.permissions.expire", 300));
+    }
+
+    public static int getRecordingDownloadConcurrency() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("recording.downloads.maxConcurrent", 4);
+    }
+
+    public static Duration getRecordingDownloadWait() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("recording.downloads.maxWait", 10));
+    }
+
+    public static Duration getRecordingDeleteDelay() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("recording.downloads.deleteDelay", 600));
+    }
+
+    public static String getRecordingStorageType() {
+        return Server.getInstance().getConfig().getConfiguration().getString("recording.storage.type", "database");
+    }
+
+    public static String getRecordingStoragePath() {
+        return Server.getInstance().getConfig().getConfiguration().getString("recording.storage.path", "storage/recordings");
+    }
+
+    public static String getRecordingCompression() {
+        return Server.getInstance().getConfig().getConfiguration().getString("recording.storage.compression", "flac");
+    }
+
+    public static int getRecordingMigrationBatch() {
+        return Server.getInstance().getConfig().getConfiguration().getInt("recording.storage.migrationBatch", 20);
+    }
+
+    public static Duration getRecordingMigrationInterval() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("recording.storage.migrationInterval", 60));
+    }
+
+    public static Duration getRecordingIndexInterval() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("recording.index.interval", 30));
+    }
+
+    public static Duration getStatsCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.stats.expire", 60));
+    }
+
+    public static long getLeaderboardCacheMaxEntries() {
+        return Server.getInstance().getConfig().getConfiguration().getLong("cache.leaderboards.maxEntries", 1000000);
+    }
+
+    public static Duration getMessageCacheExpire() {
+        return Duration.ofSeconds(Server.getInstance().getConfig().getConfiguration().getLong("cache.messages.expire", 600));
+    }
+
     public static final String defaultIconUrl = "https://i0.wp.com/www.alphr.com/wp-content/uploads/2019/02/Discord-Spoiler-Tag-Featured.jpg?resize=1200%2C1080&ssl=1";
 }
 
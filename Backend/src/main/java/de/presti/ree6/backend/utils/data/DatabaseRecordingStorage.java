@@ -0,0 +1,437 @@
+package de.presti.ree6.backend.utils.data;
+
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Recording Storage reading the audio from the blob Column of the Recording Table in fixed-size chunks,
+ * so a download never holds the whole Recording in memory.
+ */
+@Slf4j
+public class DatabaseRecordingStorage implements RecordingStorage {
+
+    /**
+     * Name of the Table used to store when Recordings have been downloaded.
+     */
+    private static final String TABLE = "WebinterfaceRecordingDownloads";
+
+    /**
+     * The size of a single chunk read from the Database.
+     */
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Marks a Recording whose blob is about to be emptied, while no new download stream may be opened.
+     */
+    private static final int BLOCKED = -1;
+
+    /**
+     * Supplies the Data Source the Recordings are stored in.
+     */
+    private final Supplier<DataSource> dataSource;
+
+    /**
+     * Resolves the Table and Column names of Recordings.
+     */
+    private final Supplier<RecordingMapping> mapping;
+
+    /**
+     * The amount of open download streams per Recording, or {@value #BLOCKED} while its blob is being emptied.
+     */
+    private final Map<String, Integer> readers = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new Database Recording Storage.
+     *
+     * @param mapping resolves the Table and Column names of Recordings.
+     */
+    public DatabaseRecordingStorage(Supplier<RecordingMapping> mapping) {
+        this(() -> SQLSession.getSqlConnector().getDataSource(), mapping);
+    }
+
+    /**
+     * Create a new Database Recording Storage.
+     *
+     * @param dataSource supplies the Data Source the Recordings are stored in.
+     * @param mapping    resolves the Table and Column names of Recordings.
+     */
+    public DatabaseRecordingStorage(Supplier<DataSource> dataSource, Supplier<RecordingMapping> mapping) {
+        this.dataSource = dataSource;
+        this.mapping = mapping;
+        createTable();
+    }
+
+    /**
+     * Open the audio of a Recording as a streamed Resource.
+     * Range requests are served by skipping to the requested offset without reading the skipped bytes.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the Resource or null, if the Recording has no audio.
+     */
+    @Override
+    public Resource open(String identifier) {
+        long length = length(identifier);
+        return length > 0 ? new RecordingResource(identifier, length) : null;
+    }
+
+    /**
+     * Open the audio of a Recording as a plain stream.
+     *
+     * @param identifier the identifier of the Recording.
+     * @param length     the length of the audio.
+     * @return the stream.
+     * @throws SQLException if the stream couldn't be opened.
+     */
+    public InputStream openStream(String identifier, long length) throws SQLException {
+        return new RecordingInputStream(identifier, length, false);
+    }
+
+    /**
+     * Block new download streams of a Recording, so its blob can be emptied.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return false, if a download stream is open and the blob must not be touched.
+     */
+    public boolean tryBlockReaders(String identifier) {
+        return readers.putIfAbsent(identifier, BLOCKED) == null;
+    }
+
+    /**
+     * Allow download streams of a Recording again.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    public void unblockReaders(String identifier) {
+        readers.remove(identifier, BLOCKED);
+    }
+
+    /**
+     * Delete a Recording without loading it.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    @Override
+    public void delete(String identifier) {
+        RecordingMapping names = mapping.get();
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + names.table() + " WHERE " + names.identifierColumn() + " = ?");
+             PreparedStatement downloaded = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE identifier = ?")) {
+            statement.setString(1, identifier);
+            statement.executeUpdate();
+
+            downloaded.setString(1, identifier);
+            downloaded.executeUpdate();
+        } catch (SQLException exception) {
+            log.error("Could not delete Recording {}", identifier, exception);
+        }
+    }
+
+    /**
+     * Mark a Recording as downloaded, so it is deleted once the configured delay has passed.
+     * The delay allows interrupted downloads to be resumed.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    public void markDownloaded(String identifier) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement select = connection.prepareStatement("SELECT 1 FROM " + TABLE + " WHERE identifier = ?")) {
+            select.setString(1, identifier);
+
+            try (ResultSet resultSet = select.executeQuery()) {
+                // The first download counts, later ones must not delay the deletion.
+                if (resultSet.next()) return;
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " (identifier, downloaded) VALUES (?, ?)")) {
+                insert.setString(1, identifier);
+                insert.setLong(2, System.currentTimeMillis());
+                insert.executeUpdate();
+            }
+        } catch (SQLException exception) {
+            log.error("Could not mark Recording {} as downloaded", identifier, exception);
+        }
+    }
+
+    /**
+     * Retrieve the Recordings that have been downloaded longer ago than the configured delay.
+     *
+     * @return the identifiers of the Recordings.
+     */
+    public List<String> retrieveDownloaded() {
+        List<String> identifiers = new ArrayList<>();
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT identifier FROM " + TABLE + " WHERE downloaded < ?")) {
+            statement.setLong(1, System.currentTimeMillis() - Data.getRecordingDeleteDelay().toMillis());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    identifiers.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not find downloaded Recordings", exception);
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Retrieve the length of the audio of a Recording.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the length in bytes or -1, if there is no audio.
+     */
+    public long length(String identifier) {
+        RecordingMapping names = mapping.get();
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT " + lengthFunction(connection) + "(" + names.audioColumn() + ") FROM " +
+                     names.table() + " WHERE " + names.identifierColumn() + " = ?")) {
+            statement.setString(1, identifier);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return -1;
+
+                long length = resultSet.getLong(1);
+                return resultSet.wasNull() ? -1 : length;
+            }
+        } catch (SQLException exception) {
+            log.error("Could not retrieve the length of Recording {}", identifier, exception);
+            return -1;
+        }
+    }
+
+    /**
+     * Get the function returning the length of a blob in bytes.
+     * H2 counts characters with LENGTH, every other supported Database counts bytes.
+     *
+     * @param connection the connection to the Database.
+     * @return the name of the function.
+     * @throws SQLException if the Database couldn't be identified.
+     */
+    private static String lengthFunction(Connection connection) throws SQLException {
+        return "H2".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()) ? "OCTET_LENGTH" : "LENGTH";
+    }
+
+    /**
+     * Create the Table used to store when Recordings have been downloaded, if it doesn't exist yet.
+     */
+    private void createTable() {
+        try (Connection connection = dataSource.get().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (identifier VARCHAR(255) NOT NULL PRIMARY KEY, downloaded BIGINT NOT NULL)");
+        } catch (SQLException exception) {
+            log.error("Could not create the Recording Download Table", exception);
+        }
+    }
+
+    /**
+     * Resource of the audio of a Recording, every opened stream reads it in chunks of {@value #CHUNK_SIZE} bytes.
+     * The bot writes a blob once, so the identifier and the length tag its bytes.
+     */
+    private class RecordingResource extends AbstractResource implements TaggedResource {
+
+        private final String identifier;
+        private final long length;
+
+        RecordingResource(String identifier, long length) {
+            this.identifier = identifier;
+            this.length = length;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Recording " + identifier;
+        }
+
+        @Override
+        public String getEntityTag() {
+            return "\"blob-" + identifier + "-" + length + "\"";
+        }
+
+        @Override
+        public String getFilename() {
+            return WAV_FILENAME;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean exists() {
+            // The default implementation would open a stream and with it a Database connection.
+            return true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return new RecordingInputStream(identifier, length, true);
+            } catch (SQLException exception) {
+                throw new IOException(exception);
+            }
+        }
+    }
+
+    /**
+     * Input Stream reading the audio of a Recording chunk by chunk, holding one Database connection while open.
+     * Download streams are counted, so the blob isn't emptied while they read it.
+     */
+    private class RecordingInputStream extends InputStream {
+
+        private final String identifier;
+        private final long length;
+        private final boolean download;
+        private final Connection connection;
+        private final PreparedStatement statement;
+
+        private byte[] chunk = new byte[0];
+        private int chunkPosition;
+        private long position;
+        private boolean closed;
+
+        RecordingInputStream(String identifier, long length, boolean download) throws SQLException {
+            RecordingMapping names = mapping.get();
+
+            this.identifier = identifier;
+            this.length = length;
+            this.download = download;
+
+            if (download && readers.merge(identifier, 1, (count, one) -> count == BLOCKED ? BLOCKED : count + 1) == BLOCKED) {
+                throw new SQLException("Recording " + identifier + " is being moved out of the Database");
+            }
+
+            try {
+                // The blob may have been emptied since the Resource was opened, which would end the stream early.
+                if (download && length(identifier) != length) {
+                    throw new SQLException("Recording " + identifier + " has been moved out of the Database");
+                }
+
+                this.connection = dataSource.get().getConnection();
+            } catch (SQLException exception) {
+                if (download) removeReader();
+                throw exception;
+            }
+
+            try {
+                this.statement = connection.prepareStatement("SELECT SUBSTR(" + names.audioColumn() + ", ?, ?) FROM " + names.table() +
+                        " WHERE " + names.identifierColumn() + " = ?");
+            } catch (SQLException exception) {
+                connection.close();
+                if (download) removeReader();
+                throw exception;
+            }
+        }
+
+        /**
+         * Remove this stream from the open download streams of its Recording.
+         */
+        private void removeReader() {
+            readers.computeIfPresent(identifier, (key, count) -> count > 1 ? count - 1 : null);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (count == 0) return 0;
+
+            if (chunkPosition >= chunk.length) {
+                if (position >= length) return -1;
+
+                fetchChunk();
+
+                if (chunk.length == 0) return -1;
+            }
+
+            int read = Math.min(count, chunk.length - chunkPosition);
+            System.arraycopy(chunk, chunkPosition, buffer, offset, read);
+            chunkPosition += read;
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long count) {
+            long skipped = Math.max(0, Math.min(count, length - position));
+            long buffered = chunk.length - chunkPosition;
+
+            if (skipped < buffered) {
+                chunkPosition += (int) skipped;
+            } else {
+                chunk = new byte[0];
+                chunkPosition = 0;
+            }
+
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkPosition;
+        }
+
+        /**
+         * Read the next chunk, starting at the current position.
+         *
+         * @throws IOException if the chunk couldn't be read.
+         */
+        private void fetchChunk() throws IOException {
+            try {
+                // SQL substrings are 1-based.
+                statement.setLong(1, position + 1);
+                statement.setInt(2, (int) Math.min(CHUNK_SIZE, length - position));
+                statement.setString(3, identifier);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    byte[] bytes = resultSet.next() ? resultSet.getBytes(1) : null;
+                    chunk = bytes != null ? bytes : new byte[0];
+                    chunkPosition = 0;
+                }
+            } catch (SQLException exception) {
+                throw new IOException("Could not read Recording " + identifier, exception);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+
+            closed = true;
+
+            try {
+                statement.close();
+                connection.close();
+            } catch (SQLException exception) {
+                log.debug("Could not close Recording stream", exception);
+            } finally {
+                if (download) removeReader();
+            }
+        }
+    }
+}
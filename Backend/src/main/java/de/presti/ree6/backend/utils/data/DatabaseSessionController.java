@@ -0,0 +1,364 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagrosh.jdautilities.oauth2.Scope;
+import com.jagrosh.jdautilities.oauth2.session.SessionData;
+import de.presti.ree6.backend.utils.ThreadUtil;
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Session Controller which persists the Sessions in the Database, so that every instance of the Backend can serve every Session
+ * and a restart does not force the Users to log in again.
+ * The OAuth2 tokens are encrypted with AES-GCM before they are written, rows that can't be decrypted are treated as missing.
+ * Rows are keyed by an HMAC of the Session Identifier, so a leaked Table can't be used to take over Sessions.
+ * A short-lived near-cache is kept in front of the Database. Creations and removals are written through,
+ * while the last usage of a Session is written behind in batches.
+ */
+@Slf4j
+public class DatabaseSessionController extends CustomSessionController {
+
+    /**
+     * Name of the Table used to store the Sessions.
+     */
+    private static final String TABLE = "WebinterfaceSessions";
+
+    /**
+     * Source of the random IVs.
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * The cipher used to encrypt the tokens.
+     */
+    private static final String CIPHER = "AES/GCM/NoPadding";
+
+    /**
+     * The length of the random IV in front of every encrypted token.
+     */
+    private static final int IV_LENGTH = 12;
+
+    /**
+     * The length of the authentication tag in bits.
+     */
+    private static final int TAG_LENGTH = 128;
+
+    /**
+     * The algorithm used to hash the Session Identifiers.
+     */
+    private static final String HASH = "HmacSHA256";
+
+    /**
+     * Last usage of Sessions that has not been written to the Database yet, keyed by the hashed Identifier.
+     */
+    private final Map<String, Long> pendingTouches = new ConcurrentHashMap<>();
+
+    /**
+     * Supplies the Data Source the Sessions are stored in.
+     */
+    private final Supplier<DataSource> dataSource;
+
+    /**
+     * The key used to encrypt the tokens, derived from the configured secret.
+     */
+    private final SecretKeySpec encryptionKey;
+
+    /**
+     * The key used to hash the Session Identifiers, derived from the configured secret.
+     */
+    private final SecretKeySpec identifierKey;
+
+    /**
+     * Create a new Database Session Controller, create the Table if needed and start the write-behind and cleanup Threads.
+     *
+     * @param encryptionKey the secret used to encrypt the tokens.
+     */
+    public DatabaseSessionController(String encryptionKey) {
+        this(encryptionKey, () -> SQLSession.getSqlConnector().getDataSource(), Caffeine.newBuilder()
+                .maximumSize(Data.getSessionStoreSize())
+                .expireAfterWrite(Data.getSessionStoreNearCacheExpire())
+                .build());
+
+        ThreadUtil.createNewThread(x -> {
+            try {
+                flush();
+            } catch (Exception exception) {
+                log.error("Failed to flush Session usage", exception);
+            }
+        }, throwable -> log.error("Failed running Session flush Thread", throwable), Data.getSessionStoreFlushInterval(), true, false);
+
+        ThreadUtil.createNewThread(x -> {
+            try {
+                removeIdleSessions();
+            } catch (Exception exception) {
+                log.error("Failed to remove idle Sessions", exception);
+            }
+        }, throwable -> log.error("Failed running Session cleanup Thread", throwable), Duration.ofMinutes(5), true, true);
+    }
+
+    /**
+     * Create a new Database Session Controller without background Threads and create the Table if needed.
+     *
+     * @param encryptionKey the secret used to encrypt the tokens.
+     * @param dataSource    supplies the Data Source the Sessions are stored in.
+     * @param sessions      the near-cache kept in front of the Database.
+     */
+    DatabaseSessionController(String encryptionKey, Supplier<DataSource> dataSource, Cache<String, CustomSession> sessions) {
+        super(sessions);
+        this.dataSource = dataSource;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            this.encryptionKey = new SecretKeySpec(digest.digest(encryptionKey.getBytes(StandardCharsets.UTF_8)), "AES");
+            this.identifierKey = new SecretKeySpec(digest.digest(("identifier:" + encryptionKey).getBytes(StandardCharsets.UTF_8)), HASH);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+
+        createTable();
+    }
+
+    /**
+     * Get a Session by its Identifier, either from the near-cache or from the Database.
+     *
+     * @param identifier the Identifier of the Session.
+     * @return the Session or null, if there is none.
+     */
+    @Override
+    public CustomSession getSession(String identifier) {
+        if (identifier == null) return null;
+
+        CustomSession session = sessions.get(identifier, this::loadSession);
+
+        if (session != null) {
+            pendingTouches.put(hash(identifier), System.currentTimeMillis());
+        }
+
+        return session;
+    }
+
+    /**
+     * Create a new Session and write it to the Database.
+     *
+     * @param data the Data of the Session.
+     * @return the created Session.
+     */
+    @Override
+    public CustomSession createSession(SessionData data) {
+        CustomSession session = super.createSession(data);
+        String identifierHash = hash(session.getIdentifier());
+
+        try (Connection connection = dataSource.get().getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE identifierHash = ?")) {
+                statement.setString(1, identifierHash);
+                statement.executeUpdate();
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + TABLE +
+                    " (identifierHash, accessToken, refreshToken, tokenType, expiration, scopes, lastUsed) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                statement.setString(1, identifierHash);
+                statement.setString(2, encrypt(session.getAccessToken()));
+                statement.setString(3, encrypt(session.getRefreshToken()));
+                statement.setString(4, session.getTokenType());
+                statement.setLong(5, session.getExpiration() != null ? session.getExpiration().toInstant().toEpochMilli() : 0);
+                statement.setString(6, session.getScopes() != null ?
+                        Arrays.stream(session.getScopes()).map(Scope::getText).collect(Collectors.joining(" ")) : "");
+                statement.setLong(7, System.currentTimeMillis());
+                statement.executeUpdate();
+            }
+        } catch (SQLException | GeneralSecurityException exception) {
+            log.error("Could not store Session", exception);
+        }
+
+        return session;
+    }
+
+    /**
+     * Remove a Session from the near-cache and the Database.
+     *
+     * @param identifier the Identifier of the Session.
+     */
+    @Override
+    public void removeSession(String identifier) {
+        super.removeSession(identifier);
+        String identifierHash = hash(identifier);
+        pendingTouches.remove(identifierHash);
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE identifierHash = ?")) {
+            statement.setString(1, identifierHash);
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            log.error("Could not remove Session", exception);
+        }
+    }
+
+    /**
+     * Write the pending usage of Sessions to the Database in a single batch.
+     *
+     * @throws SQLException if the batch couldn't be written.
+     */
+    public void flush() throws SQLException {
+        if (pendingTouches.isEmpty()) return;
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE " + TABLE + " SET lastUsed = ? WHERE identifierHash = ?")) {
+            for (String identifierHash : pendingTouches.keySet()) {
+                Long lastUsed = pendingTouches.remove(identifierHash);
+                if (lastUsed == null) continue;
+
+                statement.setLong(1, lastUsed);
+                statement.setString(2, identifierHash);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Load a Session from the Database.
+     *
+     * @param identifier the Identifier of the Session.
+     * @return the Session or null, if there is none.
+     */
+    private CustomSession loadSession(String identifier) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT accessToken, refreshToken, tokenType, expiration, scopes FROM " + TABLE + " WHERE identifierHash = ?")) {
+            statement.setString(1, hash(identifier));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return null;
+
+                String scopes = resultSet.getString("scopes");
+
+                return new CustomSession(identifier, decrypt(resultSet.getString("accessToken")), decrypt(resultSet.getString("refreshToken")),
+                        resultSet.getString("tokenType"), OffsetDateTime.ofInstant(Instant.ofEpochMilli(resultSet.getLong("expiration")), ZoneOffset.UTC),
+                        scopes == null || scopes.isBlank() ? new Scope[0] :
+                                Arrays.stream(scopes.split(" ")).map(Scope::from).filter(Objects::nonNull).toArray(Scope[]::new));
+            }
+        } catch (SQLException exception) {
+            log.error("Could not load Session", exception);
+            return null;
+        } catch (GeneralSecurityException | IllegalArgumentException exception) {
+            log.debug("Could not decrypt Session, it has been stored without or with another key", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Hash a Session Identifier, the hash is used as key of the Session in the Database.
+     *
+     * @param identifier the Identifier of the Session.
+     * @return the hash as hex.
+     */
+    private String hash(String identifier) {
+        try {
+            Mac mac = Mac.getInstance(HASH);
+            mac.init(identifierKey);
+            return HexFormat.of().formatHex(mac.doFinal(identifier.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", exception);
+        }
+    }
+
+    /**
+     * Encrypt a token, prefixing it with a random IV.
+     *
+     * @param token the token.
+     * @return the encrypted token as Base64 or null, if there is no token.
+     * @throws GeneralSecurityException if the token couldn't be encrypted.
+     */
+    private String encrypt(String token) throws GeneralSecurityException {
+        if (token == null) return null;
+
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH, iv));
+        byte[] encrypted = cipher.doFinal(token.getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+    }
+
+    /**
+     * Decrypt a token created by {@link #encrypt(String)}.
+     *
+     * @param encryptedToken the encrypted token as Base64.
+     * @return the token or null, if there is no token.
+     * @throws GeneralSecurityException if the token has been encrypted with another key or has been tampered with.
+     */
+    private String decrypt(String encryptedToken) throws GeneralSecurityException {
+        if (encryptedToken == null) return null;
+
+        byte[] bytes = Base64.getDecoder().decode(encryptedToken);
+
+        if (bytes.length <= IV_LENGTH) {
+            throw new GeneralSecurityException("Token is not encrypted");
+        }
+
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH, bytes, 0, IV_LENGTH));
+        return new String(cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Remove all Sessions that haven't been used within the configured idle time.
+     *
+     * @throws SQLException if the Sessions couldn't be removed.
+     */
+    private void removeIdleSessions() throws SQLException {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE lastUsed < ?")) {
+            statement.setLong(1, System.currentTimeMillis() - Data.getSessionStoreIdle().toMillis());
+            int removed = statement.executeUpdate();
+
+            if (removed > 0) {
+                log.info("Removed {} idle Sessions", removed);
+            }
+        }
+    }
+
+    /**
+     * Create the Table used to store the Sessions, if it doesn't exist yet.
+     */
+    private void createTable() {
+        try (Connection connection = dataSource.get().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (identifierHash CHAR(64) NOT NULL PRIMARY KEY, accessToken VARCHAR(512), " +
+                    "refreshToken VARCHAR(512), tokenType VARCHAR(64), expiration BIGINT, scopes VARCHAR(255), lastUsed BIGINT)");
+        } catch (SQLException exception) {
+            log.error("Could not create the Session Table", exception);
+        }
+    }
+}
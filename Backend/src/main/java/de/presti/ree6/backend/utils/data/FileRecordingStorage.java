@@ -0,0 +1,733 @@
+package de.presti.ree6.backend.utils.data;
+
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Recording Storage keeping the audio in a content-addressed directory, named by the SHA-256 hash of the stored file.
+ * Only the hash, the format and the length are stored in the Database, the Recording entity itself keeps its metadata.
+ * Recordings still stored as blob are moved into the directory in batches by {@link #migrate(int)}, which empties their blob.
+ * The bot only writes the blob, the Webinterface is the only one reading it, so no WAV is kept in the Database.
+ * If compression is enabled, 16-bit PCM Recordings are stored as FLAC and decoded back into WAV while they are downloaded,
+ * files moved before compression was enabled are compressed in batches by {@link #compact(int)}.
+ */
+@Slf4j
+public class FileRecordingStorage implements RecordingStorage {
+
+    /**
+     * Name of the Table used to store the hashes of the Recordings.
+     */
+    private static final String TABLE = "WebinterfaceRecordingFiles";
+
+    /**
+     * Name of the Table used to store the hashes replaced by compression, whose files are deleted once the download delay has passed.
+     */
+    private static final String REPLACED_TABLE = "WebinterfaceRecordingReplacedFiles";
+
+    /**
+     * Format of files containing the WAV as it was recorded.
+     */
+    private static final String FORMAT_WAV = "wav";
+
+    /**
+     * Format of files containing a WAV that can't be compressed.
+     */
+    private static final String FORMAT_RAW = "raw";
+
+    /**
+     * Format of files containing the Recording compressed as FLAC.
+     */
+    private static final String FORMAT_FLAC = "flac";
+
+    /**
+     * The directory the audio is stored in.
+     */
+    private final Path root;
+
+    /**
+     * Resolves the Table and Column names of Recordings.
+     */
+    private final Supplier<RecordingMapping> mapping;
+
+    /**
+     * The Database storage, used to read the blobs that are moved into the directory.
+     */
+    private final DatabaseRecordingStorage databaseStorage;
+
+    /**
+     * Locks serializing the changes to the files of a hash, picked by the hash.
+     * Moving a file in and referencing it must not interleave with deleting it once it is unreferenced.
+     */
+    private final Object[] hashLocks = new Object[64];
+
+    /**
+     * If Recordings should be compressed as FLAC.
+     */
+    private final boolean compress = Data.getRecordingCompression().equalsIgnoreCase(FORMAT_FLAC);
+
+    /**
+     * Create a new File Recording Storage and create the Table if needed.
+     *
+     * @param root            the directory the audio is stored in.
+     * @param mapping         resolves the Table and Column names of Recordings.
+     * @param databaseStorage the Database storage, used to read the blobs that are moved into the directory.
+     */
+    public FileRecordingStorage(Path root, Supplier<RecordingMapping> mapping, DatabaseRecordingStorage databaseStorage) {
+        this.root = root;
+        this.mapping = mapping;
+        this.databaseStorage = databaseStorage;
+
+        for (int i = 0; i < hashLocks.length; i++) {
+            hashLocks[i] = new Object();
+        }
+
+        createTable();
+    }
+
+    /**
+     * Open the audio of a Recording as WAV.
+     * WAV files are served as they are, FLAC files are decoded while they are read.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the audio or null, if the Recording has not been moved into the directory.
+     */
+    @Override
+    public Resource open(String identifier) {
+        StoredFile storedFile = find(identifier);
+
+        if (storedFile == null) return null;
+
+        return storedFile.format().equals(FORMAT_FLAC) ? new DecodedResource(storedFile.file(), storedFile.length(), "\"" + storedFile.hash() + "-wav\"")
+                : new StoredFileResource(storedFile, null);
+    }
+
+    /**
+     * Open the FLAC file of a Recording.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the file or null, if the Recording has not been moved into the directory or isn't compressed.
+     */
+    @Override
+    public Resource openCompressed(String identifier) {
+        StoredFile storedFile = find(identifier);
+
+        if (storedFile == null || !storedFile.format().equals(FORMAT_FLAC)) return null;
+
+        return new StoredFileResource(storedFile, FLAC_FILENAME);
+    }
+
+    /**
+     * Delete a Recording, its hash and its audio file, if no other Recording has the same audio.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    @Override
+    public void delete(String identifier) {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+            String hash = null;
+
+            try (PreparedStatement statement = connection.prepareStatement("SELECT hash FROM " + TABLE + " WHERE identifier = ?")) {
+                statement.setString(1, identifier);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) hash = resultSet.getString("hash");
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE identifier = ?")) {
+                statement.setString(1, identifier);
+                statement.executeUpdate();
+            }
+
+            if (hash != null) {
+                deleteIfUnused(connection, hash);
+            }
+        } catch (SQLException | IOException exception) {
+            log.error("Could not delete the file of Recording {}", identifier, exception);
+        }
+
+        databaseStorage.delete(identifier);
+    }
+
+    /**
+     * Mark a Recording as downloaded, so it is deleted once the configured delay has passed.
+     * The delay allows interrupted downloads to be resumed.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return false, if the Recording has not been moved into the directory.
+     */
+    public boolean markDownloaded(String identifier) {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("UPDATE " + TABLE + " SET downloaded = ? WHERE identifier = ? AND downloaded = 0")) {
+                statement.setLong(1, System.currentTimeMillis());
+                statement.setString(2, identifier);
+
+                if (statement.executeUpdate() > 0) return true;
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM " + TABLE + " WHERE identifier = ?")) {
+                statement.setString(1, identifier);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next();
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not mark Recording {} as downloaded", identifier, exception);
+            return true;
+        }
+    }
+
+    /**
+     * Move a batch of Recordings, that are still stored as blob, into the directory.
+     * The blob of a moved Recording is emptied, its metadata stays in the Recording Table.
+     * Recordings that are being downloaded from the Database are skipped and moved in a later batch.
+     *
+     * @param batchSize the maximal amount of Recordings to move.
+     * @return the amount of moved Recordings.
+     */
+    public int migrate(int batchSize) {
+        RecordingMapping names = mapping.get();
+        List<String> identifiers = new ArrayList<>();
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT " + names.identifierColumn() + " FROM " + names.table() +
+                     " WHERE LENGTH(" + names.audioColumn() + ") > 0 LIMIT ?")) {
+            statement.setInt(1, batchSize);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    identifiers.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not find Recordings to move", exception);
+            return 0;
+        }
+
+        int moved = 0;
+
+        for (String identifier : identifiers) {
+            try {
+                if (store(identifier)) moved++;
+            } catch (Exception exception) {
+                log.error("Could not move Recording {}", identifier, exception);
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Compress a batch of files, that have been moved into the directory while compression was disabled.
+     * Files that can't be compressed are kept as WAV and not tried again.
+     *
+     * @param batchSize the maximal amount of files to compress.
+     * @return the amount of compressed files.
+     */
+    public int compact(int batchSize) {
+        if (!compress) return 0;
+
+        List<String> identifiers = new ArrayList<>();
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT identifier FROM " + TABLE + " WHERE format = ? LIMIT ?")) {
+            statement.setString(1, FORMAT_WAV);
+            statement.setInt(2, batchSize);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    identifiers.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not find Recordings to compress", exception);
+            return 0;
+        }
+
+        int compacted = 0;
+
+        for (String identifier : identifiers) {
+            try {
+                if (compress(identifier)) compacted++;
+            } catch (Exception exception) {
+                log.error("Could not compress Recording {}", identifier, exception);
+            }
+        }
+
+        return compacted;
+    }
+
+    /**
+     * Delete the Recordings that have been downloaded longer ago than the configured delay,
+     * the files replaced by compression longer ago than the delay,
+     * and the files of Recordings that have been deleted from the Recording Table by someone else.
+     */
+    public void cleanup() {
+        deleteReplaced();
+
+        RecordingMapping names = mapping.get();
+        List<String> identifiers = new ArrayList<>();
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT identifier FROM " + TABLE + " WHERE (downloaded > 0 AND downloaded < ?)" +
+                     " OR identifier NOT IN (SELECT " + names.identifierColumn() + " FROM " + names.table() + ")")) {
+            statement.setLong(1, System.currentTimeMillis() - Data.getRecordingDeleteDelay().toMillis());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    identifiers.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not find Recordings to delete", exception);
+            return;
+        }
+
+        identifiers.forEach(this::delete);
+    }
+
+    /**
+     * Copy the blob of a Recording into the directory, store its hash and empty the blob.
+     * If compression is enabled, the blob is stored as FLAC if possible.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return false, if the Recording has no blob or is being downloaded.
+     * @throws IOException  if the file couldn't be written.
+     * @throws SQLException if the blob couldn't be read or the hash couldn't be stored.
+     */
+    private boolean store(String identifier) throws IOException, SQLException {
+        long length = databaseStorage.length(identifier);
+
+        if (length <= 0) return false;
+
+        Files.createDirectories(root);
+        Path temporary = Files.createTempFile(root, identifier, ".tmp");
+
+        try {
+            String format = compress ? FORMAT_RAW : FORMAT_WAV;
+            long storedLength = length;
+
+            if (compress) {
+                try (InputStream inputStream = databaseStorage.openStream(identifier, length)) {
+                    long decodedLength = FlacRecordingCodec.encode(inputStream, temporary);
+
+                    if (decodedLength >= 0) {
+                        format = FORMAT_FLAC;
+                        storedLength = decodedLength;
+                    }
+                } catch (EOFException exception) {
+                    log.warn("Recording {} is truncated and can't be compressed", identifier);
+                }
+            }
+
+            if (!format.equals(FORMAT_FLAC)) {
+                try (InputStream inputStream = databaseStorage.openStream(identifier, length);
+                     OutputStream outputStream = Files.newOutputStream(temporary)) {
+                    inputStream.transferTo(outputStream);
+                }
+            }
+
+            if (!databaseStorage.tryBlockReaders(identifier)) return false;
+
+            try {
+                storeHash(identifier, temporary, storedLength, format);
+            } finally {
+                databaseStorage.unblockReaders(identifier);
+            }
+
+            return true;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Move a file into the directory, store its hash and empty the blob of its Recording.
+     *
+     * @param identifier   the identifier of the Recording.
+     * @param temporary    the file.
+     * @param storedLength the length of the WAV the file contains or decodes to.
+     * @param format       the format of the file.
+     * @throws IOException  if the file couldn't be moved.
+     * @throws SQLException if the hash couldn't be stored.
+     */
+    private void storeHash(String identifier, Path temporary, long storedLength, String format) throws IOException, SQLException {
+        String hash = hash(temporary);
+        RecordingMapping names = mapping.get();
+
+        synchronized (lock(hash)) {
+            moveIntoDirectory(temporary, hash);
+
+            try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+                connection.setAutoCommit(false);
+
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " (identifier, hash, length, format, downloaded) VALUES (?, ?, ?, ?, 0)");
+                     PreparedStatement clear = connection.prepareStatement("UPDATE " + names.table() + " SET " + names.audioColumn() + " = ? WHERE " +
+                             names.identifierColumn() + " = ?")) {
+                    insert.setString(1, identifier);
+                    insert.setString(2, hash);
+                    insert.setLong(3, storedLength);
+                    insert.setString(4, format);
+                    insert.executeUpdate();
+
+                    clear.setBytes(1, new byte[0]);
+                    clear.setString(2, identifier);
+                    clear.executeUpdate();
+
+                    connection.commit();
+                } catch (SQLException exception) {
+                    connection.rollback();
+                    throw exception;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compress the WAV file of a Recording as FLAC and replace its hash.
+     * Downloads may still be about to send the WAV file, so it is only deleted by {@link #cleanup()} once the download delay has passed
+     * and no other Recording has the same audio. If it can't be compressed it is marked as such.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return true, if the file has been compressed.
+     * @throws IOException  if the file couldn't be read or written.
+     * @throws SQLException if the hash couldn't be stored.
+     */
+    private boolean compress(String identifier) throws IOException, SQLException {
+        StoredFile storedFile = find(identifier);
+
+        if (storedFile == null) return false;
+
+        Path temporary = Files.createTempFile(root, identifier, ".tmp");
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+            long decodedLength = -1;
+
+            if (Files.isRegularFile(storedFile.file())) {
+                try (InputStream inputStream = Files.newInputStream(storedFile.file())) {
+                    decodedLength = FlacRecordingCodec.encode(inputStream, temporary);
+                } catch (EOFException exception) {
+                    log.warn("Recording {} is truncated and can't be compressed", identifier);
+                }
+            }
+
+            if (decodedLength < 0) {
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE " + TABLE + " SET format = ? WHERE identifier = ?")) {
+                    statement.setString(1, FORMAT_RAW);
+                    statement.setString(2, identifier);
+                    statement.executeUpdate();
+                }
+
+                return false;
+            }
+
+            String hash = hash(temporary);
+
+            synchronized (lock(hash)) {
+                moveIntoDirectory(temporary, hash);
+
+                try (PreparedStatement statement = connection.prepareStatement("UPDATE " + TABLE + " SET hash = ?, length = ?, format = ? WHERE identifier = ?")) {
+                    statement.setString(1, hash);
+                    statement.setLong(2, decodedLength);
+                    statement.setString(3, FORMAT_FLAC);
+                    statement.setString(4, identifier);
+                    statement.executeUpdate();
+                }
+            }
+
+            markReplaced(connection, storedFile.hash());
+            return true;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Calculate the hash of a file.
+     *
+     * @param file the file.
+     * @return the SHA-256 hash of the file.
+     * @throws IOException if the file couldn't be read.
+     */
+    private String hash(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    /**
+     * Move a file into the directory, named by its hash.
+     * If the directory already contains a file with the same hash, the given file is deleted instead.
+     * Has to be called while holding the {@link #lock(String)} of the hash, until the file is referenced.
+     *
+     * @param temporary the file.
+     * @param hash      the SHA-256 hash of the file.
+     * @throws IOException if the file couldn't be moved.
+     */
+    private void moveIntoDirectory(Path temporary, String hash) throws IOException {
+        Path file = resolve(hash);
+
+        if (Files.exists(file)) {
+            Files.delete(temporary);
+        } else {
+            Files.createDirectories(file.getParent());
+
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Remember that a hash has been replaced, so its file is deleted once the download delay has passed.
+     *
+     * @param connection the connection to use.
+     * @param hash       the replaced hash.
+     * @throws SQLException if the hash couldn't be stored.
+     */
+    private void markReplaced(Connection connection, String hash) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("UPDATE " + REPLACED_TABLE + " SET replaced = ? WHERE hash = ?")) {
+            update.setLong(1, System.currentTimeMillis());
+            update.setString(2, hash);
+
+            if (update.executeUpdate() > 0) return;
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + REPLACED_TABLE + " (hash, replaced) VALUES (?, ?)")) {
+            insert.setString(1, hash);
+            insert.setLong(2, System.currentTimeMillis());
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Delete the files of hashes replaced longer ago than the download delay, if no Recording references them anymore.
+     */
+    private void deleteReplaced() {
+        List<String> hashes = new ArrayList<>();
+
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT hash FROM " + REPLACED_TABLE + " WHERE replaced < ?")) {
+                statement.setLong(1, System.currentTimeMillis() - Data.getRecordingDeleteDelay().toMillis());
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        hashes.add(resultSet.getString(1));
+                    }
+                }
+            }
+
+            for (String hash : hashes) {
+                deleteIfUnused(connection, hash);
+
+                try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + REPLACED_TABLE + " WHERE hash = ?")) {
+                    statement.setString(1, hash);
+                    statement.executeUpdate();
+                }
+            }
+        } catch (SQLException | IOException exception) {
+            log.error("Could not delete the files replaced by compression", exception);
+        }
+    }
+
+    /**
+     * Delete the file of a hash, if no Recording references it anymore.
+     *
+     * @param connection the connection to use.
+     * @param hash       the hash.
+     * @throws SQLException if the references couldn't be counted.
+     * @throws IOException  if the file couldn't be deleted.
+     */
+    private void deleteIfUnused(Connection connection, String hash) throws SQLException, IOException {
+        synchronized (lock(hash)) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM " + TABLE + " WHERE hash = ?")) {
+                statement.setString(1, hash);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next() && resultSet.getLong(1) == 0) {
+                        Files.deleteIfExists(resolve(hash));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the lock serializing the changes to the file of a hash.
+     *
+     * @param hash the SHA-256 hash.
+     * @return the lock.
+     */
+    private Object lock(String hash) {
+        return hashLocks[Math.floorMod(hash.hashCode(), hashLocks.length)];
+    }
+
+    /**
+     * Find the file of a Recording.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the file or null, if the Recording has not been moved into the directory or its file is missing.
+     */
+    private StoredFile find(String identifier) {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT hash, length, format FROM " + TABLE + " WHERE identifier = ?")) {
+            statement.setString(1, identifier);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return null;
+
+                String hash = resultSet.getString("hash");
+                Path file = resolve(hash);
+                return Files.isRegularFile(file) ? new StoredFile(hash, file, resultSet.getLong("length"), resultSet.getString("format")) : null;
+            }
+        } catch (SQLException exception) {
+            log.error("Could not retrieve the file of Recording {}", identifier, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the file of a hash, spread over sub-directories named after the first two characters of the hash.
+     *
+     * @param hash the SHA-256 hash of the audio.
+     * @return the file.
+     */
+    private Path resolve(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Create the Tables used to store the hashes of the Recordings and the hashes replaced by compression, if they don't exist yet.
+     */
+    private void createTable() {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (identifier VARCHAR(255) NOT NULL PRIMARY KEY, hash VARCHAR(64), " +
+                    "length BIGINT, format VARCHAR(16), downloaded BIGINT)");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + REPLACED_TABLE + " (hash VARCHAR(64) NOT NULL PRIMARY KEY, replaced BIGINT)");
+        } catch (SQLException exception) {
+            log.error("Could not create the Recording File Table", exception);
+        }
+    }
+
+    /**
+     * A file in the directory.
+     *
+     * @param hash   the hash of the file.
+     * @param file   the file.
+     * @param length the length of the WAV the file contains or decodes to.
+     * @param format the format of the file.
+     */
+    private record StoredFile(String hash, Path file, long length, String format) {
+    }
+
+    /**
+     * Resource of a file served as it is, tagged with its hash.
+     */
+    private static class StoredFileResource extends FileSystemResource implements TaggedResource {
+
+        private final String hash;
+        private final String filename;
+
+        StoredFileResource(StoredFile storedFile, String filename) {
+            super(storedFile.file());
+            this.hash = storedFile.hash();
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename != null ? filename : super.getFilename();
+        }
+
+        @Override
+        public String getEntityTag() {
+            return "\"" + hash + "\"";
+        }
+    }
+
+    /**
+     * Resource of a FLAC file, decoded into WAV while it is read.
+     * Range requests are served by decoding and skipping up to the requested offset.
+     * It isn't a file to Spring, so every download of it takes one of the download slots of the {@link de.presti.ree6.backend.service.RecordingService}.
+     */
+    private static class DecodedResource extends AbstractResource implements TaggedResource {
+
+        private final Path file;
+        private final long length;
+        private final String entityTag;
+
+        DecodedResource(Path file, long length, String entityTag) {
+            this.file = file;
+            this.length = length;
+            this.entityTag = entityTag;
+        }
+
+        @Override
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Decoded Recording " + file;
+        }
+
+        @Override
+        public String getFilename() {
+            return WAV_FILENAME;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.isRegularFile(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return FlacRecordingCodec.decode(Files.newInputStream(file));
+        }
+    }
+}
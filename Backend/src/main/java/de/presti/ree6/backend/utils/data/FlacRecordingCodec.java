@@ -0,0 +1,265 @@
+package de.presti.ree6.backend.utils.data;
+
+import net.sourceforge.javaflacencoder.EncodingConfiguration;
+import net.sourceforge.javaflacencoder.FLACEncoder;
+import net.sourceforge.javaflacencoder.FLACFileOutputStream;
+import net.sourceforge.javaflacencoder.StreamConfiguration;
+import org.jflac.FLACDecoder;
+import org.jflac.frame.Frame;
+import org.jflac.metadata.StreamInfo;
+import org.jflac.util.ByteData;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Lossless compression of Recordings, converting between 16-bit PCM WAV and FLAC.
+ * Decoding produces a canonical WAV with a 44 byte header, pulled frame by frame so a download never holds the whole Recording in memory.
+ */
+public class FlacRecordingCodec {
+
+    /**
+     * The size of the canonical WAV header written when decoding.
+     */
+    public static final int WAV_HEADER_SIZE = 44;
+
+    /**
+     * The only supported sample size, the one Recordings are written with.
+     */
+    private static final int BITS_PER_SAMPLE = 16;
+
+    /**
+     * The amount of samples per channel read from the WAV at once.
+     */
+    private static final int READ_SAMPLES = 16384;
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     *
+     * @throws IllegalStateException it is a utility class.
+     */
+    private FlacRecordingCodec() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Encode a WAV into a FLAC file.
+     *
+     * @param wav    the WAV.
+     * @param target the FLAC file to write.
+     * @return the length of the canonical WAV the FLAC file decodes to, or -1 if the WAV isn't 16-bit PCM and nothing was written.
+     * @throws IOException if the WAV couldn't be read or the FLAC file couldn't be written.
+     */
+    public static long encode(InputStream wav, Path target) throws IOException {
+        DataInputStream input = new DataInputStream(wav);
+
+        byte[] riff = new byte[12];
+        input.readFully(riff);
+
+        if (!"RIFF".equals(new String(riff, 0, 4, StandardCharsets.US_ASCII)) || !"WAVE".equals(new String(riff, 8, 4, StandardCharsets.US_ASCII))) {
+            return -1;
+        }
+
+        int channels = 0;
+        int sampleRate = 0;
+        long dataLength;
+
+        // Walk the chunks until the data chunk, the format chunk is always in front of it.
+        while (true) {
+            byte[] header = new byte[8];
+            input.readFully(header);
+
+            String id = new String(header, 0, 4, StandardCharsets.US_ASCII);
+            long size = ByteBuffer.wrap(header, 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL;
+
+            if (id.equals("data")) {
+                dataLength = size;
+                break;
+            }
+
+            if (id.equals("fmt ")) {
+                byte[] format = new byte[(int) size];
+                input.readFully(format);
+
+                ByteBuffer buffer = ByteBuffer.wrap(format).order(ByteOrder.LITTLE_ENDIAN);
+                int audioFormat = buffer.getShort(0) & 0xFFFF;
+
+                // 1 is PCM, 0xFFFE the extensible format, whose sub-format is PCM for everything Recordings are written with.
+                if ((audioFormat != 1 && audioFormat != 0xFFFE) || (buffer.getShort(14) & 0xFFFF) != BITS_PER_SAMPLE) {
+                    return -1;
+                }
+
+                channels = buffer.getShort(2) & 0xFFFF;
+                sampleRate = buffer.getInt(4);
+
+                if ((size & 1) == 1) input.skipNBytes(1);
+            } else {
+                input.skipNBytes(size + (size & 1));
+            }
+        }
+
+        StreamConfiguration streamConfiguration = new StreamConfiguration(channels, StreamConfiguration.DEFAULT_MIN_BLOCK_SIZE,
+                StreamConfiguration.DEFAULT_MAX_BLOCK_SIZE, sampleRate, BITS_PER_SAMPLE);
+
+        if (channels == 0 || !streamConfiguration.isValid()) {
+            return -1;
+        }
+
+        FLACEncoder encoder = new FLACEncoder();
+        encoder.setStreamConfiguration(streamConfiguration);
+        encoder.setEncodingConfiguration(new EncodingConfiguration());
+
+        int frameSize = channels * BITS_PER_SAMPLE / 8;
+        long frames = 0;
+
+        try (FLACFileOutputStream output = new FLACFileOutputStream(target.toFile())) {
+            encoder.setOutputStream(output);
+            encoder.openFLACStream();
+
+            byte[] bytes = new byte[READ_SAMPLES * frameSize];
+            long remaining = dataLength - dataLength % frameSize;
+
+            while (remaining > 0) {
+                int requested = (int) Math.min(bytes.length, remaining);
+                int read = input.readNBytes(bytes, 0, requested);
+                int readFrames = read / frameSize;
+
+                if (readFrames == 0) break;
+
+                // The encoder keeps a reference to the samples until their block is encoded.
+                int[] samples = new int[readFrames * channels];
+
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = (short) ((bytes[i * 2] & 0xFF) | (bytes[i * 2 + 1] << 8));
+                }
+
+                encoder.addSamples(samples, readFrames);
+                encoder.encodeSamples(encoder.fullBlockSamplesAvailableToEncode(), false);
+
+                frames += readFrames;
+                remaining -= (long) readFrames * frameSize;
+
+                if (read < requested) break;
+            }
+
+            encoder.encodeSamples(encoder.samplesAvailableToEncode(), true);
+        }
+
+        return WAV_HEADER_SIZE + frames * frameSize;
+    }
+
+    /**
+     * Decode a FLAC file into a canonical WAV.
+     *
+     * @param flac the FLAC file.
+     * @return the WAV, decoded while it is read.
+     * @throws IOException if the FLAC file couldn't be read.
+     */
+    public static InputStream decode(InputStream flac) throws IOException {
+        return new WavInputStream(flac);
+    }
+
+    /**
+     * Input Stream writing the canonical WAV header followed by the PCM data of one FLAC frame at a time.
+     */
+    private static class WavInputStream extends InputStream {
+
+        private final InputStream flac;
+        private final FLACDecoder decoder;
+
+        private byte[] chunk;
+        private int chunkLength;
+        private int chunkPosition;
+        private ByteData pcm;
+        private boolean finished;
+
+        WavInputStream(InputStream flac) throws IOException {
+            this.flac = flac;
+            this.decoder = new FLACDecoder(flac);
+            decoder.readMetadata();
+
+            StreamInfo streamInfo = decoder.getStreamInfo();
+
+            if (streamInfo == null) {
+                throw new IOException("FLAC stream without stream info");
+            }
+
+            int frameSize = streamInfo.getChannels() * streamInfo.getBitsPerSample() / 8;
+            long dataLength = streamInfo.getTotalSamples() * frameSize;
+
+            ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt((int) (dataLength + WAV_HEADER_SIZE - 8))
+                    .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+                    .put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16).putShort((short) 1)
+                    .putShort((short) streamInfo.getChannels()).putInt(streamInfo.getSampleRate())
+                    .putInt(streamInfo.getSampleRate() * frameSize).putShort((short) frameSize).putShort((short) streamInfo.getBitsPerSample())
+                    .put("data".getBytes(StandardCharsets.US_ASCII)).putInt((int) dataLength);
+
+            this.chunk = header.array();
+            this.chunkLength = chunk.length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (count == 0) return 0;
+
+            while (chunkPosition >= chunkLength) {
+                if (finished || !decodeFrame()) return -1;
+            }
+
+            int read = Math.min(count, chunkLength - chunkPosition);
+            System.arraycopy(chunk, chunkPosition, buffer, offset, read);
+            chunkPosition += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return chunkLength - chunkPosition;
+        }
+
+        /**
+         * Decode the next FLAC frame.
+         *
+         * @return false, if there are no frames left.
+         * @throws IOException if the frame couldn't be read.
+         */
+        private boolean decodeFrame() throws IOException {
+            Frame frame;
+
+            try {
+                frame = decoder.readNextFrame();
+            } catch (EOFException exception) {
+                frame = null;
+            }
+
+            if (frame == null) {
+                finished = true;
+                return false;
+            }
+
+            pcm = decoder.decodeFrame(frame, pcm);
+            chunk = pcm.getData();
+            chunkLength = pcm.getLen();
+            chunkPosition = 0;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flac.close();
+        }
+    }
+}
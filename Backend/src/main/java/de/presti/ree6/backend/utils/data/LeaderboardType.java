@@ -0,0 +1,31 @@
+package de.presti.ree6.backend.utils.data;
+
+/**
+ * The types of Leaderboards.
+ */
+public enum LeaderboardType {
+
+    /**
+     * Leaderboard based on the Chat experience.
+     */
+    CHAT,
+
+    /**
+     * Leaderboard based on the Voice experience.
+     */
+    VOICE;
+
+    /**
+     * Get a type by its name.
+     *
+     * @param name the name of the type, case-insensitive.
+     * @return the type or null, if there is none with the name.
+     */
+    public static LeaderboardType fromName(String name) {
+        for (LeaderboardType type : values()) {
+            if (type.name().equalsIgnoreCase(name)) return type;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,206 @@
+package de.presti.ree6.backend.utils.data;
+
+import de.presti.ree6.backend.service.WebhookService;
+import de.presti.ree6.backend.utils.data.container.NotifierContainer;
+import de.presti.ree6.sql.SQLSession;
+import de.presti.ree6.sql.entities.webhook.*;
+import lombok.Getter;
+import net.dv8tion.jda.api.entities.Guild;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Registry of all the Notifier types and how they are stored.
+ */
+@Getter
+public enum NotifierType {
+
+    /**
+     * YouTube Notifier.
+     */
+    YOUTUBE("youtube") {
+        @Override
+        public Mono<List<NotifierContainer>> retrieve(Guild guild, WebhookService webhookService) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeWebhooks(guild.getIdLong())
+                    .map(webhooks -> webhookService.toNotifierContainers(guild, webhooks, WebhookYouTube::getName, WebhookYouTube::getMessage));
+        }
+
+        @Override
+        public void add(long guildId, long channelId, long webhookId, String token, String name, String message) {
+            SQLSession.getSqlConnector().getSqlWorker().addYouTubeWebhook(guildId, channelId, webhookId, token, name, message);
+        }
+
+        @Override
+        public void remove(long guildId, String name) {
+            SQLSession.getSqlConnector().getSqlWorker().removeYouTubeWebhook(guildId, name);
+        }
+
+        @Override
+        public Mono<Optional<? extends Webhook>> find(long guildId, String name) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllYouTubeWebhooks(guildId)
+                    .map(webhooks -> webhooks.stream().filter(webhook -> webhook.getName().equalsIgnoreCase(name)).findFirst());
+        }
+    },
+
+    /**
+     * Reddit Notifier.
+     */
+    REDDIT("reddit") {
+        @Override
+        public Mono<List<NotifierContainer>> retrieve(Guild guild, WebhookService webhookService) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllRedditWebhooks(guild.getIdLong())
+                    .map(webhooks -> webhookService.toNotifierContainers(guild, webhooks, WebhookReddit::getSubreddit, WebhookReddit::getMessage));
+        }
+
+        @Override
+        public void add(long guildId, long channelId, long webhookId, String token, String name, String message) {
+            SQLSession.getSqlConnector().getSqlWorker().addRedditWebhook(guildId, channelId, webhookId, token, name, message);
+        }
+
+        @Override
+        public void remove(long guildId, String name) {
+            SQLSession.getSqlConnector().getSqlWorker().removeRedditWebhook(guildId, name);
+        }
+
+        @Override
+        public Mono<Optional<? extends Webhook>> find(long guildId, String name) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllRedditWebhooks(guildId)
+                    .map(webhooks -> webhooks.stream().filter(webhook -> webhook.getSubreddit().equalsIgnoreCase(name)).findFirst());
+        }
+    },
+
+    /**
+     * Twitch Notifier.
+     */
+    TWITCH("twitch") {
+        @Override
+        public Mono<List<NotifierContainer>> retrieve(Guild guild, WebhookService webhookService) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllTwitchWebhooks(guild.getIdLong())
+                    .map(webhooks -> webhookService.toNotifierContainers(guild, webhooks, WebhookTwitch::getName, WebhookTwitch::getMessage));
+        }
+
+        @Override
+        public void add(long guildId, long channelId, long webhookId, String token, String name, String message) {
+            SQLSession.getSqlConnector().getSqlWorker().addTwitchWebhook(guildId, channelId, webhookId, token, name, message);
+        }
+
+        @Override
+        public void remove(long guildId, String name) {
+            SQLSession.getSqlConnector().getSqlWorker().removeTwitchWebhook(guildId, name);
+        }
+
+        @Override
+        public Mono<Optional<? extends Webhook>> find(long guildId, String name) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllTwitchWebhooks(guildId)
+                    .map(webhooks -> webhooks.stream().filter(webhook -> webhook.getName().equalsIgnoreCase(name)).findFirst());
+        }
+    },
+
+    /**
+     * Twitter Notifier.
+     */
+    TWITTER("twitter") {
+        @Override
+        public Mono<List<NotifierContainer>> retrieve(Guild guild, WebhookService webhookService) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllTwitterWebhooks(guild.getIdLong())
+                    .map(webhooks -> webhookService.toNotifierContainers(guild, webhooks, WebhookTwitter::getName, WebhookTwitter::getMessage));
+        }
+
+        @Override
+        public void add(long guildId, long channelId, long webhookId, String token, String name, String message) {
+            SQLSession.getSqlConnector().getSqlWorker().addTwitterWebhook(guildId, channelId, webhookId, token, name, message);
+        }
+
+        @Override
+        public void remove(long guildId, String name) {
+            SQLSession.getSqlConnector().getSqlWorker().removeTwitterWebhook(guildId, name);
+        }
+
+        @Override
+        public Mono<Optional<? extends Webhook>> find(long guildId, String name) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllTwitterWebhooks(guildId)
+                    .map(webhooks -> webhooks.stream().filter(webhook -> webhook.getName().equalsIgnoreCase(name)).findFirst());
+        }
+    },
+
+    /**
+     * Instagram Notifier.
+     */
+    INSTAGRAM("instagram") {
+        @Override
+        public Mono<List<NotifierContainer>> retrieve(Guild guild, WebhookService webhookService) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllInstagramWebhooks(guild.getIdLong())
+                    .map(webhooks -> webhookService.toNotifierContainers(guild, webhooks, WebhookInstagram::getName, WebhookInstagram::getMessage));
+        }
+
+        @Override
+        public void add(long guildId, long channelId, long webhookId, String token, String name, String message) {
+            SQLSession.getSqlConnector().getSqlWorker().addInstagramWebhook(guildId, channelId, webhookId, token, name, message);
+        }
+
+        @Override
+        public void remove(long guildId, String name) {
+            SQLSession.getSqlConnector().getSqlWorker().removeInstagramWebhook(guildId, name);
+        }
+
+        @Override
+        public Mono<Optional<? extends Webhook>> find(long guildId, String name) {
+            return SQLSession.getSqlConnector().getSqlWorker().getAllInstagramWebhooks(guildId)
+                    .map(webhooks -> webhooks.stream().filter(webhook -> webhook.getName().equalsIgnoreCase(name)).findFirst());
+        }
+    };
+
+    /**
+     * The name of the type, used in responses.
+     */
+    private final String name;
+
+    /**
+     * Create a new Notifier type.
+     *
+     * @param name the name of the type.
+     */
+    NotifierType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieve all Notifiers of this type in a Guild.
+     *
+     * @param guild          the Guild.
+     * @param webhookService the Webhook Service used to resolve the Channels.
+     * @return the Notifiers.
+     */
+    public abstract Mono<List<NotifierContainer>> retrieve(Guild guild, WebhookService webhookService);
+
+    /**
+     * Store a new Notifier of this type.
+     *
+     * @param guildId   the ID of the Guild.
+     * @param channelId the ID of the Channel.
+     * @param webhookId the ID of the Webhook.
+     * @param token     the token of the Webhook.
+     * @param name      the name of the notified entity.
+     * @param message   the message of the Notifier.
+     */
+    public abstract void add(long guildId, long channelId, long webhookId, String token, String name, String message);
+
+    /**
+     * Remove a Notifier of this type.
+     *
+     * @param guildId the ID of the Guild.
+     * @param name    the name of the notified entity.
+     */
+    public abstract void remove(long guildId, String name);
+
+    /**
+     * Find the stored Webhook of a Notifier of this type.
+     *
+     * @param guildId the ID of the Guild.
+     * @param name    the name of the notified entity.
+     * @return the stored Webhook or empty, if there is no such Notifier.
+     */
+    public abstract Mono<Optional<? extends Webhook>> find(long guildId, String name);
+}
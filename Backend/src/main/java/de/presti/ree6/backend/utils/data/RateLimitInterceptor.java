@@ -0,0 +1,296 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interceptor used by the OAuth2 Client to respect the rate-limit buckets of Discord.
+ * Requests of the same bucket are queued, wait for the bucket to reset if it is exhausted
+ * and fail fast with a {@link RateLimitedException} if the queue is full or the wait would take too long.
+ */
+@Slf4j
+public class RateLimitInterceptor implements Interceptor {
+
+    /**
+     * The rate-limit buckets, keyed by the bucket (or route if the bucket is not known yet) and the authorization.
+     * OAuth2 rate-limits are applied per token, so every User has its own buckets.
+     * Once the bucket of a route is known, the route's bucket moves to the bucket key with everything it learned so far.
+     */
+    private final Cache<String, Bucket> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    /**
+     * The bucket hashes Discord reported for the routes.
+     */
+    private final Map<String, String> routeBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * The metrics of the routes.
+     */
+    private final Map<String, RouteMetrics> routeMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * Time in milliseconds until the global rate-limit is reset.
+     */
+    private volatile long globalResetAt;
+
+    /**
+     * The maximum amount of queued requests per bucket.
+     */
+    private final int maxQueue;
+
+    /**
+     * The maximum time a request waits for its bucket to reset.
+     */
+    private final Duration maxWait;
+
+    /**
+     * Create a new Rate-Limit Interceptor with the configured limits.
+     */
+    public RateLimitInterceptor() {
+        this(Data.getRateLimitMaxQueue(), Data.getRateLimitMaxWait());
+    }
+
+    /**
+     * Create a new Rate-Limit Interceptor.
+     *
+     * @param maxQueue the maximum amount of queued requests per bucket.
+     * @param maxWait  the maximum time a request waits for its bucket to reset.
+     */
+    public RateLimitInterceptor(int maxQueue, Duration maxWait) {
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request request = chain.request();
+
+        String route = request.method() + " " + request.url().encodedPath().replaceAll("\\d{15,}", "{id}");
+        String authorization = request.header("Authorization");
+        String authorizationKey = ":" + (authorization == null ? 0 : authorization.hashCode());
+        String routeKey = route + authorizationKey;
+        String bucketHash = routeBuckets.get(route);
+
+        Bucket bucket = bucketHash == null ? buckets.get(routeKey, key -> new Bucket(maxQueue)) : buckets.get(bucketHash + authorizationKey, key -> {
+            // Keep the state learned while the bucket was only known by its route, e.g. a 429 of the first request.
+            Bucket routeBucket = buckets.getIfPresent(routeKey);
+            return routeBucket != null ? routeBucket : new Bucket(maxQueue);
+        });
+        RouteMetrics metrics = routeMetrics.computeIfAbsent(route, RouteMetrics::new);
+
+        if (!bucket.queue.tryAcquire()) {
+            throw new RateLimitedException(route, "Too many queued requests");
+        }
+
+        metrics.queued.incrementAndGet();
+        long start = System.nanoTime();
+
+        try {
+            bucket.lock.lockInterruptibly();
+
+            try {
+                awaitReset(route, Math.max(bucket.remaining > 0 ? 0 : bucket.resetAt, globalResetAt));
+                metrics.waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+                Response response = chain.proceed(request);
+                update(route, bucket, response);
+
+                if (response.code() == 429) {
+                    response.close();
+                    throw new RateLimitedException(route, "Rate-limit exceeded");
+                }
+
+                return response;
+            } finally {
+                bucket.lock.unlock();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the rate-limit of " + route);
+        } finally {
+            metrics.queued.decrementAndGet();
+            bucket.queue.release();
+        }
+    }
+
+    /**
+     * Wait until the given reset time, if it is within the allowed wait time.
+     *
+     * @param route   the route of the request.
+     * @param resetAt the time in milliseconds the bucket resets.
+     * @throws RateLimitedException if the wait would take too long.
+     * @throws InterruptedException if the Thread has been interrupted while waiting.
+     */
+    private void awaitReset(String route, long resetAt) throws RateLimitedException, InterruptedException {
+        long wait = resetAt - System.currentTimeMillis();
+        if (wait <= 0) return;
+
+        if (wait > maxWait.toMillis()) {
+            throw new RateLimitedException(route, "Bucket exhausted for another " + wait + "ms");
+        }
+
+        Thread.sleep(wait);
+    }
+
+    /**
+     * Update the bucket with the rate-limit headers of a response.
+     *
+     * @param route    the route of the request.
+     * @param bucket   the bucket of the request.
+     * @param response the response.
+     */
+    private void update(String route, Bucket bucket, Response response) {
+        String bucketHash = response.header("X-RateLimit-Bucket");
+        if (bucketHash != null) {
+            routeBuckets.put(route, bucketHash);
+        }
+
+        String remaining = response.header("X-RateLimit-Remaining");
+        String resetAfter = response.header("X-RateLimit-Reset-After");
+
+        try {
+            if (remaining != null) {
+                bucket.remaining = Integer.parseInt(remaining);
+            }
+
+            if (resetAfter != null) {
+                bucket.resetAt = System.currentTimeMillis() + (long) (Double.parseDouble(resetAfter) * 1000);
+            }
+
+            if (response.code() == 429) {
+                String retryAfter = response.header("Retry-After");
+                long retryAt = System.currentTimeMillis() + (retryAfter != null ? (long) (Double.parseDouble(retryAfter) * 1000) : 1000);
+
+                if ("true".equalsIgnoreCase(response.header("X-RateLimit-Global"))) {
+                    globalResetAt = retryAt;
+                } else {
+                    bucket.remaining = 0;
+                    bucket.resetAt = Math.max(bucket.resetAt, retryAt);
+                }
+
+                log.warn("Hit the rate-limit of {}, retry after {}ms", route, retryAt - System.currentTimeMillis());
+            }
+        } catch (NumberFormatException exception) {
+            log.debug("Invalid rate-limit headers for {}", route, exception);
+        }
+    }
+
+    /**
+     * A rate-limit bucket.
+     */
+    private static class Bucket {
+
+        /**
+         * Permits of the queue, used to limit the amount of waiting requests.
+         */
+        private final Semaphore queue;
+
+        /**
+         * Lock used to send the requests of the bucket one after another.
+         */
+        private final ReentrantLock lock = new ReentrantLock(true);
+
+        /**
+         * Remaining requests in the current window.
+         */
+        private volatile int remaining = 1;
+
+        /**
+         * Time in milliseconds the bucket resets.
+         */
+        private volatile long resetAt;
+
+        /**
+         * Create a new bucket.
+         *
+         * @param maxQueue the maximum amount of queued requests.
+         */
+        private Bucket(int maxQueue) {
+            this.queue = new Semaphore(maxQueue);
+        }
+    }
+
+    /**
+     * The metrics of a route.
+     */
+    private static class RouteMetrics {
+
+        /**
+         * The amount of queued requests.
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        /**
+         * The time requests had to wait for the rate-limit.
+         */
+        private final Timer waitTimer;
+
+        /**
+         * Create and register the metrics of a route.
+         *
+         * @param route the route.
+         */
+        private RouteMetrics(String route) {
+            Gauge.builder("webinterface.discord.ratelimit.queue", queued, AtomicInteger::get)
+                    .tag("route", route)
+                    .description("Requests waiting for a rate-limit bucket")
+                    .register(Metrics.globalRegistry);
+            waitTimer = Timer.builder("webinterface.discord.ratelimit.wait")
+                    .tag("route", route)
+                    .description("Time requests waited for a rate-limit bucket")
+                    .register(Metrics.globalRegistry);
+        }
+    }
+
+    /**
+     * Exception thrown if a request has not been sent, because its rate-limit bucket is exhausted.
+     */
+    public static class RateLimitedException extends IOException {
+
+        /**
+         * Create a new Exception.
+         *
+         * @param route  the route of the request.
+         * @param reason the reason.
+         */
+        public RateLimitedException(String route, String reason) {
+            super("Rate-limited on " + route + ": " + reason);
+        }
+
+        /**
+         * Check if the given Throwable has been caused by a rate-limit.
+         *
+         * @param throwable the Throwable.
+         * @return true, if a {@link RateLimitedException} is part of the causes.
+         */
+        public static boolean isCause(Throwable throwable) {
+            while (throwable != null) {
+                if (throwable instanceof RateLimitedException) return true;
+                throwable = throwable.getCause();
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package de.presti.ree6.backend.utils.data;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resource handed to a client downloading a Recording, wrapping the audio of the Recording.
+ * Once a stream has been read from the first to the last byte, the download counts as complete.
+ * The download slot taken for it is held until the download is closed, which happens once the response has been written.
+ */
+public class RecordingDownload extends AbstractResource implements Closeable {
+
+    /**
+     * The request attribute holding the download of the request, closed by the {@link de.presti.ree6.backend.RecordingDownloadFilter}.
+     */
+    public static final String ATTRIBUTE = RecordingDownload.class.getName();
+
+    /**
+     * The audio of the Recording.
+     */
+    private final Resource resource;
+
+    /**
+     * Called once the audio has been read completely, null if the download can't complete (e.g. for Range requests).
+     */
+    private final Runnable onComplete;
+
+    /**
+     * Releases the download slot, called only once.
+     */
+    private final Runnable release;
+
+    /**
+     * If the download has been closed.
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Create a new Recording Download.
+     *
+     * @param resource   the audio of the Recording.
+     * @param onComplete called once the audio has been read completely, null if the download can't complete.
+     * @param release    releases the download slot.
+     */
+    public RecordingDownload(Resource resource, Runnable onComplete, Runnable release) {
+        this.resource = resource;
+        this.onComplete = onComplete;
+        this.release = release;
+    }
+
+    /**
+     * Close the download and release its download slot.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return resource.getDescription();
+    }
+
+    @Override
+    public String getFilename() {
+        return resource.getFilename();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return resource.contentLength();
+    }
+
+    @Override
+    public boolean exists() {
+        return resource.exists();
+    }
+
+    @Override
+    public boolean isFile() {
+        return resource.isFile();
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        return resource.getFile();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        InputStream inputStream = resource.getInputStream();
+        return onComplete != null ? new CompletionInputStream(inputStream) : inputStream;
+    }
+
+    /**
+     * Input Stream calling {@link #onComplete}, once it reached its end without skipping any bytes.
+     */
+    private class CompletionInputStream extends FilterInputStream {
+
+        private boolean skipped;
+        private boolean completed;
+
+        CompletionInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return checkEnd(super.read());
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            return count == 0 ? 0 : checkEnd(super.read(buffer, offset, count));
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skippedBytes = super.skip(count);
+            skipped |= skippedBytes > 0;
+            return skippedBytes;
+        }
+
+        /**
+         * Call {@link #onComplete}, if the end of the stream has been reached.
+         *
+         * @param read the result of the read.
+         * @return the result of the read.
+         */
+        private int checkEnd(int read) {
+            if (read == -1 && !skipped && !completed) {
+                completed = true;
+                onComplete.run();
+            }
+
+            return read;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Normalized index of the Users that took part in a Recording, one row per Recording and User.
+ * Every indexed Recording additionally has a row with the User ID 0, marking it as indexed even without participants.
+ */
+@Slf4j
+public class RecordingParticipantIndex {
+
+    /**
+     * Name of the Table used to store the participants of the Recordings.
+     */
+    private static final String TABLE = "WebinterfaceRecordingParticipants";
+
+    /**
+     * Name of the index used to list the Recordings of a User.
+     */
+    private static final String INDEX = TABLE + "User";
+
+    /**
+     * The User ID of the row marking a Recording as indexed.
+     */
+    private static final long MARKER = 0L;
+
+    /**
+     * Supplies the Data Source the index is stored in.
+     */
+    private final Supplier<DataSource> dataSource;
+
+    /**
+     * Resolves the Table and Column names of Recordings.
+     */
+    private final Supplier<RecordingStorage.RecordingMapping> mapping;
+
+    /**
+     * Create a new Recording Participant Index in the Database of Ree6 and create the Table if needed.
+     *
+     * @param mapping resolves the Table and Column names of Recordings.
+     */
+    public RecordingParticipantIndex(Supplier<RecordingStorage.RecordingMapping> mapping) {
+        this(() -> SQLSession.getSqlConnector().getDataSource(), mapping);
+    }
+
+    /**
+     * Create a new Recording Participant Index and create the Table if needed.
+     *
+     * @param dataSource supplies the Data Source the index is stored in.
+     * @param mapping    resolves the Table and Column names of Recordings.
+     */
+    public RecordingParticipantIndex(Supplier<DataSource> dataSource, Supplier<RecordingStorage.RecordingMapping> mapping) {
+        this.dataSource = dataSource;
+        this.mapping = mapping;
+        createTable();
+    }
+
+    /**
+     * Check if a User took part in a Recording.
+     *
+     * @param identifier the identifier of the Recording.
+     * @param userId     the ID of the User.
+     * @return true or false, or empty if the Recording hasn't been indexed yet.
+     */
+    public Optional<Boolean> isParticipant(String identifier, long userId) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT userId FROM " + TABLE + " WHERE recordingId = ? AND userId IN (?, ?)")) {
+            statement.setString(1, identifier);
+            statement.setLong(2, MARKER);
+            statement.setLong(3, userId);
+
+            boolean indexed = false;
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (resultSet.getLong(1) == userId && userId != MARKER) return Optional.of(true);
+                    indexed = true;
+                }
+            }
+
+            return indexed ? Optional.of(false) : Optional.empty();
+        } catch (SQLException exception) {
+            log.error("Could not check the participants of Recording {}", identifier, exception);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Retrieve the identifiers of all Recordings a User took part in.
+     *
+     * @param userId the ID of the User.
+     * @return the identifiers, newest first.
+     */
+    public List<String> retrieveRecordings(long userId) {
+        List<String> identifiers = new ArrayList<>();
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT recordingId FROM " + TABLE + " WHERE userId = ? ORDER BY creation DESC")) {
+            statement.setLong(1, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    identifiers.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not retrieve the Recordings of User {}", userId, exception);
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Retrieve the identifiers of Recordings that haven't been indexed yet.
+     *
+     * @param batchSize the maximal amount of identifiers.
+     * @return the identifiers.
+     */
+    public List<String> retrieveUnindexed(int batchSize) {
+        RecordingStorage.RecordingMapping names = mapping.get();
+        List<String> identifiers = new ArrayList<>();
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT " + names.identifierColumn() + " FROM " + names.table() +
+                     " WHERE " + names.identifierColumn() + " NOT IN (SELECT recordingId FROM " + TABLE + " WHERE userId = ?) LIMIT ?")) {
+            statement.setLong(1, MARKER);
+            statement.setInt(2, batchSize);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    identifiers.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not find Recordings to index", exception);
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Index the participants of a Recording, replacing any previous rows.
+     * Participants are stored as their Discord ID, entries that aren't a valid ID are ignored.
+     *
+     * @param identifier   the identifier of the Recording.
+     * @param guildId      the ID of the Guild.
+     * @param creation     the creation time of the Recording in milliseconds.
+     * @param participants the participants, as stored in the Recording.
+     */
+    public void index(String identifier, long guildId, long creation, Iterable<JsonElement> participants) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        userIds.add(MARKER);
+
+        for (JsonElement element : participants) {
+            if (element.isJsonPrimitive()) {
+                JsonPrimitive primitive = element.getAsJsonPrimitive();
+
+                try {
+                    userIds.add(Long.parseLong(primitive.getAsString().trim()));
+                } catch (NumberFormatException ignore) {
+                }
+            }
+        }
+
+        try (Connection connection = dataSource.get().getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE recordingId = ?");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " (recordingId, userId, guildId, creation) VALUES (?, ?, ?, ?)")) {
+                delete.setString(1, identifier);
+                delete.executeUpdate();
+
+                for (long userId : userIds) {
+                    insert.setString(1, identifier);
+                    insert.setLong(2, userId);
+                    insert.setLong(3, guildId);
+                    insert.setLong(4, creation);
+                    insert.addBatch();
+                }
+
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException exception) {
+                connection.rollback();
+                throw exception;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException exception) {
+            log.error("Could not index the participants of Recording {}", identifier, exception);
+        }
+    }
+
+    /**
+     * Remove a Recording from the index.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    public void remove(String identifier) {
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE recordingId = ?")) {
+            statement.setString(1, identifier);
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            log.error("Could not remove Recording {} from the index", identifier, exception);
+        }
+    }
+
+    /**
+     * Remove the rows of Recordings that have been deleted from the Recording Table by someone else.
+     */
+    public void cleanup() {
+        RecordingStorage.RecordingMapping names = mapping.get();
+
+        try (Connection connection = dataSource.get().getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE recordingId NOT IN (SELECT " +
+                     names.identifierColumn() + " FROM " + names.table() + ")")) {
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            log.error("Could not remove deleted Recordings from the index", exception);
+        }
+    }
+
+    /**
+     * Create the Table used to store the participants of the Recordings, if it doesn't exist yet.
+     * The primary key serves the access check, the second index the listing of a User's Recordings.
+     * Not every Database supports {@code CREATE INDEX IF NOT EXISTS}, so the index is looked up first.
+     */
+    private void createTable() {
+        try (Connection connection = dataSource.get().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (recordingId VARCHAR(255) NOT NULL, userId BIGINT NOT NULL, " +
+                    "guildId BIGINT, creation BIGINT, PRIMARY KEY (recordingId, userId))");
+
+            if (!hasIndex(connection, INDEX)) {
+                try {
+                    statement.execute("CREATE INDEX " + INDEX + " ON " + TABLE + " (userId, creation)");
+                } catch (SQLException exception) {
+                    // Another instance may have created it in the meantime.
+                    if (!hasIndex(connection, INDEX)) throw exception;
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not create the Recording Participant Table", exception);
+        }
+    }
+
+    /**
+     * Check if the Table has an index.
+     * The Table is looked up as written, upper- and lower-case, since Databases differ in how they store unquoted names.
+     *
+     * @param connection the connection to use.
+     * @param index      the name of the index.
+     * @return true, if the index exists.
+     * @throws SQLException if the metadata couldn't be read.
+     */
+    private static boolean hasIndex(Connection connection, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+
+        for (String table : Set.of(TABLE, TABLE.toUpperCase(Locale.ROOT), TABLE.toLowerCase(Locale.ROOT))) {
+            try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+                while (resultSet.next()) {
+                    if (index.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))) return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
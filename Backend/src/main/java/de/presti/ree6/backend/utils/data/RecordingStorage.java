@@ -0,0 +1,69 @@
+package de.presti.ree6.backend.utils.data;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Storage backend for the audio of Recordings.
+ */
+public interface RecordingStorage {
+
+    /**
+     * The filename of Recordings served as WAV.
+     */
+    String WAV_FILENAME = "recording.wav";
+
+    /**
+     * The filename of Recordings served as FLAC.
+     */
+    String FLAC_FILENAME = "recording.flac";
+
+    /**
+     * Open the audio of a Recording as WAV.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the audio as Resource or null, if this storage has no audio of the Recording.
+     */
+    Resource open(String identifier);
+
+    /**
+     * Open the audio of a Recording as FLAC, if this storage keeps it compressed.
+     *
+     * @param identifier the identifier of the Recording.
+     * @return the audio as Resource named {@value #FLAC_FILENAME} or null, if this storage has no compressed audio of the Recording.
+     */
+    default Resource openCompressed(String identifier) {
+        return null;
+    }
+
+    /**
+     * Delete a Recording together with its audio.
+     *
+     * @param identifier the identifier of the Recording.
+     */
+    void delete(String identifier);
+
+    /**
+     * Audio of a Recording, tagged with a strong entity tag of the exact bytes it serves.
+     * The tag changes whenever the served bytes could, e.g. once a WAV has been compressed and is decoded instead,
+     * so resumed downloads never splice two representations.
+     */
+    interface TaggedResource extends Resource {
+
+        /**
+         * Get the entity tag of the served bytes.
+         *
+         * @return the quoted strong entity tag.
+         */
+        String getEntityTag();
+    }
+
+    /**
+     * The Table and Column names the Recording entity is mapped to.
+     *
+     * @param table            the Table of the Recordings.
+     * @param identifierColumn the Column of the identifier.
+     * @param audioColumn      the Column of the audio.
+     */
+    record RecordingMapping(String table, String identifierColumn, String audioColumn) {
+    }
+}
@@ -0,0 +1,86 @@
+package de.presti.ree6.backend.utils.data;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Memo living for the lifetime of a single HTTP request, used to resolve Sessions and Guilds at most once per request.
+ * It is created by the {@link de.presti.ree6.backend.RequestMemoFilter} and found either through the current request
+ * or through the Reactor context of the subscriber.
+ */
+public class RequestMemo {
+
+    /**
+     * Name of the request attribute and key in the Reactor context.
+     */
+    public static final String ATTRIBUTE = RequestMemo.class.getName();
+
+    /**
+     * The memoized values, keyed by what they have been resolved from.
+     */
+    private final Map<Object, Object> values = new ConcurrentHashMap<>();
+
+    /**
+     * Get the memo of the current request.
+     *
+     * @return the memo or null, if there is no request bound to the current Thread.
+     */
+    public static RequestMemo current() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) return null;
+
+        return requestAttributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof RequestMemo requestMemo ? requestMemo : null;
+    }
+
+    /**
+     * Resolve a {@link Mono} at most once per request.
+     * If there is no memo, the supplier is used directly.
+     *
+     * @param key      the key of the value.
+     * @param supplier the supplier of the value, only used on the first call of the request.
+     * @param <V>      the type of the value.
+     * @return the memoized {@link Mono}.
+     */
+    public static <V> Mono<V> memoize(Object key, Supplier<Mono<V>> supplier) {
+        RequestMemo requestMemo = current();
+
+        if (requestMemo != null) {
+            return requestMemo.get(key, supplier).contextWrite(context -> context.put(ATTRIBUTE, requestMemo));
+        }
+
+        return Mono.deferContextual(context -> context.<RequestMemo>getOrEmpty(ATTRIBUTE)
+                .map(contextMemo -> contextMemo.get(key, supplier))
+                .orElseGet(supplier));
+    }
+
+    /**
+     * Get an already memoized {@link Mono} of the current request.
+     *
+     * @param key the key of the value.
+     * @param <V> the type of the value.
+     * @return the memoized {@link Mono} or null, if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> Mono<V> peek(Object key) {
+        RequestMemo requestMemo = current();
+        return requestMemo != null ? (Mono<V>) requestMemo.values.get(key) : null;
+    }
+
+    /**
+     * Get the memoized {@link Mono} of a key or memoize the one of the supplier.
+     *
+     * @param key      the key of the value.
+     * @param supplier the supplier of the value.
+     * @param <V>      the type of the value.
+     * @return the memoized {@link Mono}.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> Mono<V> get(Object key, Supplier<Mono<V>> supplier) {
+        return (Mono<V>) values.computeIfAbsent(key, k -> supplier.get().cache());
+    }
+}
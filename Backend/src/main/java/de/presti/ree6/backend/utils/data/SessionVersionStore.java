@@ -0,0 +1,107 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import de.presti.ree6.sql.SQLSession;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Store of the Session versions of the Users, persisted in the Database so a restart or another instance
+ * does not accept Tokens that have been revoked by a logout.
+ * The versions are read through a bounded cache, whose expiry limits how long another instance may accept a revoked Token.
+ */
+@Slf4j
+public class SessionVersionStore {
+
+    /**
+     * Name of the Table used to store the Session versions.
+     */
+    private static final String TABLE = "WebinterfaceSessionVersions";
+
+    /**
+     * Cache of the Session versions read from the Database.
+     */
+    private final LoadingCache<Long, Integer> versions = Caffeine.newBuilder()
+            .maximumSize(Data.getSessionCacheSize())
+            .expireAfterWrite(Data.getSessionCacheRefresh())
+            .build(this::load);
+
+    /**
+     * Create a new Session Version Store and create the Table if needed.
+     */
+    public SessionVersionStore() {
+        createTable();
+    }
+
+    /**
+     * Get the current Session version of a User.
+     *
+     * @param userId the ID of the User.
+     * @return the Session version.
+     * @throws IllegalStateException if the version couldn't be read from the Database.
+     */
+    public int getVersion(long userId) {
+        return versions.get(userId);
+    }
+
+    /**
+     * Increase the Session version of a User, revoking every Token issued with the previous version.
+     *
+     * @param userId the ID of the User.
+     */
+    public void increment(long userId) {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement update = connection.prepareStatement("UPDATE " + TABLE + " SET version = version + 1 WHERE userId = ?")) {
+            update.setLong(1, userId);
+
+            if (update.executeUpdate() == 0) {
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " (userId, version) VALUES (?, 1)")) {
+                    insert.setLong(1, userId);
+                    insert.executeUpdate();
+                }
+            }
+        } catch (SQLException exception) {
+            log.error("Could not increase the Session version of User {}", userId, exception);
+        } finally {
+            versions.invalidate(userId);
+        }
+    }
+
+    /**
+     * Load the Session version of a User from the Database.
+     *
+     * @param userId the ID of the User.
+     * @return the Session version, 0 if the User never logged out.
+     */
+    private Integer load(Long userId) {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT version FROM " + TABLE + " WHERE userId = ?")) {
+            statement.setLong(1, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        } catch (SQLException exception) {
+            // Not cached, so the Token is rejected until the Database can be reached again.
+            throw new IllegalStateException("Could not read the Session version of User " + userId, exception);
+        }
+    }
+
+    /**
+     * Create the Table used to store the Session versions, if it doesn't exist yet.
+     */
+    private void createTable() {
+        try (Connection connection = SQLSession.getSqlConnector().getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (userId BIGINT NOT NULL PRIMARY KEY, version INT NOT NULL)");
+        } catch (SQLException exception) {
+            log.error("Could not create the Session Version Table", exception);
+        }
+    }
+}
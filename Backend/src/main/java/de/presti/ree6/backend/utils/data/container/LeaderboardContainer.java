@@ -21,4 +21,8 @@ public class LeaderboardContainer {
     List<UserLevelContainer> chatLeaderboard;
 
     List<UserLevelContainer> voiceLeaderboard;
+
+    int total;
+
+    String nextCursor;
 }
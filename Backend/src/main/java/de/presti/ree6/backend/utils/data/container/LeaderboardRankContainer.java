@@ -0,0 +1,22 @@
+package de.presti.ree6.backend.utils.data.container;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import de.presti.ree6.backend.utils.data.container.user.UserLevelContainer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardRankContainer {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    long guildId;
+
+    UserLevelContainer entry;
+
+    int total;
+}
@@ -2,8 +2,8 @@ package de.presti.ree6.backend.utils.data.container;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.service.RecordingService;
 import de.presti.ree6.backend.utils.data.container.user.UserContainer;
-import de.presti.ree6.sql.entities.Recording;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,6 +17,7 @@ import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChanne
 @AllArgsConstructor
 public class RecordContainer {
 
+    String identifier;
     String creationTime;
 
     @JsonFormat(shape = JsonFormat.Shape.STRING)
@@ -25,16 +26,16 @@ public class RecordContainer {
     ChannelContainer voiceChannel;
     UserContainer creator;
 
-    public RecordContainer(Recording recording) {
-        ///this.data = Base64.encodeBase64String(recording.getRecording());
-        this.creationTime = String.valueOf(recording.getCreation());
-        this.guildId = recording.getGuildId();
-        this.creator = new UserContainer(BotWorker.getShardManager().retrieveUserById(recording.getCreatorId()).complete());
+    public RecordContainer(RecordingService.RecordingMetadata recording, UserContainer creator) {
+        this.identifier = recording.identifier();
+        this.creationTime = String.valueOf(recording.creation());
+        this.guildId = recording.guildId();
+        this.creator = creator;
 
-        Guild guild = BotWorker.getShardManager().getGuildById(recording.getGuildId());
+        Guild guild = BotWorker.getShardManager().getGuildById(recording.guildId());
 
         if (guild != null) {
-            StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, recording.getVoiceId());
+            StandardGuildMessageChannel channel = guild.getChannelById(StandardGuildMessageChannel.class, recording.voiceId());
 
             if (channel != null) {
                 this.voiceChannel = new ChannelContainer(channel);
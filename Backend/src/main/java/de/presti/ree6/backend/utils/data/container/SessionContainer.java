@@ -16,7 +16,7 @@ import lombok.Setter;
 public class SessionContainer {
 
     public SessionContainer(String identifier, Session session, OAuth2User user) {
-        this(identifier, session, new UserContainer(user), user);
+        this(identifier, session, new UserContainer(user), user, null);
     }
 
     String identifier;
@@ -28,4 +28,6 @@ public class SessionContainer {
 
     @JsonIgnore
     OAuth2User oAuthUser;
+
+    String token;
 }
@@ -0,0 +1,42 @@
+package de.presti.ree6.backend.utils.data.container.guild;
+
+import de.presti.ree6.backend.utils.data.container.ChannelContainer;
+import de.presti.ree6.backend.utils.data.container.TicketContainer;
+import de.presti.ree6.backend.utils.data.container.role.RoleContainer;
+import de.presti.ree6.backend.utils.data.container.role.RoleLevelContainer;
+import de.presti.ree6.sql.entities.Setting;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class DashboardContainer {
+
+    GuildContainer guild;
+
+    ChannelContainer logChannel;
+
+    ChannelContainer welcomeChannel;
+
+    TicketContainer ticket;
+
+    ChannelContainer suggestionChannel;
+
+    ChannelContainer temporalVoice;
+
+    List<RoleContainer> autoRoles;
+
+    List<RoleLevelContainer> chatAutoRoles;
+
+    List<RoleLevelContainer> voiceAutoRoles;
+
+    List<Setting> settings;
+
+    List<String> failedSections = Collections.synchronizedList(new ArrayList<>());
+}
@@ -0,0 +1,36 @@
+package de.presti.ree6.backend.utils.data.container.guild;
+
+import com.jagrosh.jdautilities.oauth2.entities.OAuth2Guild;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Container class to store the OAuth2 Guilds of a Session, indexed by their ID.
+ */
+@Getter
+@AllArgsConstructor
+public class GuildListContainer {
+
+    /**
+     * The Guilds of the Session.
+     */
+    List<OAuth2Guild> guilds;
+
+    /**
+     * The Guilds of the Session, mapped by their ID.
+     */
+    Map<Long, OAuth2Guild> guildMap;
+
+    public GuildListContainer(List<OAuth2Guild> guilds) {
+        this(List.copyOf(guilds), guilds.stream().collect(Collectors.toUnmodifiableMap(OAuth2Guild::getIdLong, Function.identity(), (first, second) -> first)));
+    }
+
+    public OAuth2Guild getGuildById(long id) {
+        return guildMap.get(id);
+    }
+}
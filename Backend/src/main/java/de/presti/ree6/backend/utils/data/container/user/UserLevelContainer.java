@@ -1,5 +1,6 @@
 package de.presti.ree6.backend.utils.data.container.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import de.presti.ree6.sql.entities.level.UserLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,12 +17,18 @@ import lombok.Setter;
 public class UserLevelContainer {
 
     /**
-     * The UserLevel.
+     * The UserLevel, without its own rank as that would be calculated by sorting the whole level table.
      */
+    @JsonIgnoreProperties("rank")
     public UserLevel userLevel;
 
     /**
      * The User.
      */
     public UserContainer user;
+
+    /**
+     * The rank of the User on the Leaderboard.
+     */
+    public long rank;
 }
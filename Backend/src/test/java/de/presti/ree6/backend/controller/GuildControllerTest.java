@@ -0,0 +1,62 @@
+package de.presti.ree6.backend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuildControllerTest {
+
+    @Test
+    void wavIsTheDefault() {
+        assertThat(GuildController.prefersFlac(null)).isFalse();
+        assertThat(GuildController.prefersFlac("*/*")).isFalse();
+        assertThat(GuildController.prefersFlac("application/octet-stream")).isFalse();
+        assertThat(GuildController.prefersFlac("audio/wav")).isFalse();
+    }
+
+    @Test
+    void flacIsServedWhenOnlyFlacIsAccepted() {
+        assertThat(GuildController.prefersFlac("audio/flac")).isTrue();
+        assertThat(GuildController.prefersFlac("audio/flac, application/json")).isTrue();
+    }
+
+    @Test
+    void equallyAcceptedFormatsKeepWav() {
+        assertThat(GuildController.prefersFlac("audio/flac, audio/wav")).isFalse();
+        assertThat(GuildController.prefersFlac("audio/*")).isFalse();
+        assertThat(GuildController.prefersFlac("audio/flac, */*")).isFalse();
+    }
+
+    @Test
+    void qualityValuesDecide() {
+        assertThat(GuildController.prefersFlac("audio/flac;q=1.0, audio/wav;q=0.5")).isTrue();
+        assertThat(GuildController.prefersFlac("audio/flac;q=0.5, audio/wav;q=0.9")).isFalse();
+        assertThat(GuildController.prefersFlac("audio/flac, */*;q=0.1")).isTrue();
+        assertThat(GuildController.prefersFlac("audio/flac;q=0")).isFalse();
+    }
+
+    @Test
+    void malformedHeadersKeepWav() {
+        assertThat(GuildController.prefersFlac("audio/flac;q=")).isFalse();
+        assertThat(GuildController.prefersFlac("not a media type")).isFalse();
+    }
+
+    @Test
+    void rangesApplyWithoutIfRange() {
+        assertThat(GuildController.ifRangeMatches(null, "\"hash\"")).isTrue();
+        assertThat(GuildController.ifRangeMatches(null, null)).isTrue();
+    }
+
+    @Test
+    void rangesApplyOnlyToTheSameRepresentation() {
+        assertThat(GuildController.ifRangeMatches("\"hash\"", "\"hash\"")).isTrue();
+        assertThat(GuildController.ifRangeMatches("\"hash\"", "\"hash-wav\"")).isFalse();
+        assertThat(GuildController.ifRangeMatches("\"hash\"", null)).isFalse();
+    }
+
+    @Test
+    void weakTagsAndDatesNeverMatch() {
+        assertThat(GuildController.ifRangeMatches("W/\"hash\"", "\"hash\"")).isFalse();
+        assertThat(GuildController.ifRangeMatches("Wed, 21 Oct 2015 07:28:00 GMT", "\"hash\"")).isFalse();
+    }
+}
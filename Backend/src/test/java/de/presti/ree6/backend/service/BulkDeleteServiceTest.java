@@ -0,0 +1,178 @@
+package de.presti.ree6.backend.service;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkDeleteServiceTest {
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private BulkDeleteService bulkDeleteService;
+
+    @BeforeEach
+    void createDatabase() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(TestWarning.class.getName(), TestPunishment.class.getName()));
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        bulkDeleteService = new BulkDeleteService(entityManager, transactionManager);
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        entityManagerFactory.close();
+    }
+
+    private void persist(Object... entities) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Object entity : entities) {
+                entityManager.persist(entity);
+            }
+        });
+    }
+
+    private long count(Class<?> entityClass) {
+        return entityManager.createQuery("SELECT COUNT(e) FROM " + entityManagerFactory.getMetamodel().entity(entityClass).getName() + " e", Long.class)
+                .getSingleResult();
+    }
+
+    @Test
+    void onlyTheEntitiesOfTheGuildAreDeleted() {
+        persist(new TestWarning(1L, 10L), new TestWarning(1L, 11L), new TestWarning(2L, 10L));
+
+        assertThat(bulkDeleteService.deleteByGuild(TestWarning.class, "guildUserId.guildId", 1L).block(Duration.ofSeconds(10))).isEqualTo(2);
+        assertThat(count(TestWarning.class)).isEqualTo(1);
+    }
+
+    @Test
+    void otherEntitiesAreNotTouched() {
+        persist(new TestWarning(1L, 10L), new TestPunishment(1L, 5L));
+
+        assertThat(bulkDeleteService.deleteByGuild(TestPunishment.class, "guildAndId.guildId", 1L).block(Duration.ofSeconds(10))).isEqualTo(1);
+        assertThat(count(TestPunishment.class)).isZero();
+        assertThat(count(TestWarning.class)).isEqualTo(1);
+    }
+
+    @Test
+    void guildsWithoutEntitiesDeleteNothing() {
+        persist(new TestWarning(2L, 10L));
+
+        assertThat(bulkDeleteService.deleteByGuild(TestWarning.class, "guildUserId.guildId", 1L).block(Duration.ofSeconds(10))).isZero();
+        assertThat(count(TestWarning.class)).isEqualTo(1);
+    }
+
+    @Entity(name = "TestWarning")
+    static class TestWarning {
+
+        @EmbeddedId
+        TestGuildUserId guildUserId;
+
+        TestWarning() {
+        }
+
+        TestWarning(long guildId, long userId) {
+            this.guildUserId = new TestGuildUserId(guildId, userId);
+        }
+    }
+
+    @Embeddable
+    static class TestGuildUserId implements Serializable {
+
+        long guildId;
+
+        long userId;
+
+        TestGuildUserId() {
+        }
+
+        TestGuildUserId(long guildId, long userId) {
+            this.guildId = guildId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof TestGuildUserId other && other.guildId == guildId && other.userId == userId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(guildId) * 31 + Long.hashCode(userId);
+        }
+    }
+
+    @Entity(name = "TestPunishment")
+    static class TestPunishment {
+
+        @EmbeddedId
+        TestGuildAndId guildAndId;
+
+        TestPunishment() {
+        }
+
+        TestPunishment(long guildId, long id) {
+            this.guildAndId = new TestGuildAndId(guildId, id);
+        }
+    }
+
+    @Embeddable
+    static class TestGuildAndId implements Serializable {
+
+        long guildId;
+
+        long id;
+
+        TestGuildAndId() {
+        }
+
+        TestGuildAndId(long guildId, long id) {
+            this.guildId = guildId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof TestGuildAndId other && other.guildId == guildId && other.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(guildId) * 31 + Long.hashCode(id);
+        }
+    }
+}
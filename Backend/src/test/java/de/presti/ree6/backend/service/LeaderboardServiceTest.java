@@ -0,0 +1,34 @@
+package de.presti.ree6.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardServiceTest {
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void cursorsDecodeToTheirPosition() {
+        assertThat(LeaderboardService.decodeCursor(LeaderboardService.encodeCursor(1234L, 123456789012345678L)))
+                .containsExactly(1234L, 123456789012345678L);
+    }
+
+    @Test
+    void cursorsAreUrlSafe() {
+        assertThat(LeaderboardService.encodeCursor(Long.MAX_VALUE, Long.MAX_VALUE)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        assertThat(LeaderboardService.decodeCursor("not base64!")).isNull();
+        assertThat(LeaderboardService.decodeCursor(encode("1234"))).isNull();
+        assertThat(LeaderboardService.decodeCursor(encode("1:2:3"))).isNull();
+        assertThat(LeaderboardService.decodeCursor(encode("xp:1"))).isNull();
+    }
+}
@@ -0,0 +1,201 @@
+package de.presti.ree6.backend.service;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
+import net.dv8tion.jda.api.events.guild.update.GuildUpdateOwnerEvent;
+import net.dv8tion.jda.api.events.role.RoleDeleteEvent;
+import net.dv8tion.jda.api.events.role.update.RoleUpdatePermissionsEvent;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.restaction.CacheRestAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionServiceTest {
+
+    private final PermissionService permissionService = new PermissionService(100, Duration.ofMinutes(5));
+
+    private final Guild guild = guild(1L);
+
+    private final Guild otherGuild = guild(2L);
+
+    private final Member admin = mock(Member.class);
+
+    private final Member member = mock(Member.class);
+
+    @BeforeEach
+    void mockMembers() {
+        when(admin.hasPermission(Permission.ADMINISTRATOR)).thenReturn(true);
+        when(guild.getMemberById(10L)).thenReturn(admin);
+        when(guild.getMemberById(20L)).thenReturn(member);
+        when(otherGuild.getMemberById(10L)).thenReturn(admin);
+    }
+
+    private static Guild guild(long guildId) {
+        Guild guild = mock(Guild.class);
+        when(guild.getIdLong()).thenReturn(guildId);
+        return guild;
+    }
+
+    private static User user(long userId) {
+        User user = mock(User.class);
+        when(user.getIdLong()).thenReturn(userId);
+        return user;
+    }
+
+    private void demoteAdmin() {
+        // Only decisions that aren't cached see the change.
+        when(admin.hasPermission(Permission.ADMINISTRATOR)).thenReturn(false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void failRetrieve(long userId, ErrorResponse errorResponse) {
+        ErrorResponseException exception = mock(ErrorResponseException.class);
+        when(exception.getErrorResponse()).thenReturn(errorResponse);
+
+        CacheRestAction<Member> restAction = mock(CacheRestAction.class);
+        when(restAction.complete()).thenThrow(exception);
+        when(guild.retrieveMemberById(userId)).thenReturn(restAction);
+    }
+
+    @Test
+    void decisionsAreCached() {
+        assertThat(permissionService.isAdmin(guild, 10L)).isTrue();
+        assertThat(permissionService.isAdmin(guild, 20L)).isFalse();
+
+        demoteAdmin();
+
+        assertThat(permissionService.isAdmin(guild, 10L)).isTrue();
+        verify(guild, times(1)).getMemberById(10L);
+    }
+
+    @Test
+    void roleChangesInvalidateTheMember() {
+        permissionService.isAdmin(guild, 10L);
+        demoteAdmin();
+
+        GuildMemberRoleRemoveEvent event = mock(GuildMemberRoleRemoveEvent.class);
+        User user = user(10L);
+        when(event.getUser()).thenReturn(user);
+        when(event.getGuild()).thenReturn(guild);
+        permissionService.onGuildMemberRoleRemove(event);
+
+        assertThat(permissionService.isAdmin(guild, 10L)).isFalse();
+    }
+
+    @Test
+    void roleAdditionsInvalidateOnlyTheMember() {
+        permissionService.isAdmin(guild, 10L);
+        permissionService.isAdmin(guild, 20L);
+        when(member.hasPermission(Permission.ADMINISTRATOR)).thenReturn(true);
+        demoteAdmin();
+
+        GuildMemberRoleAddEvent event = mock(GuildMemberRoleAddEvent.class);
+        User user = user(20L);
+        when(event.getUser()).thenReturn(user);
+        when(event.getGuild()).thenReturn(guild);
+        permissionService.onGuildMemberRoleAdd(event);
+
+        assertThat(permissionService.isAdmin(guild, 20L)).isTrue();
+        assertThat(permissionService.isAdmin(guild, 10L)).isTrue();
+    }
+
+    @Test
+    void joinsAndLeavesInvalidateTheMember() {
+        failRetrieve(30L, ErrorResponse.UNKNOWN_MEMBER);
+        assertThat(permissionService.isAdmin(guild, 30L)).isFalse();
+
+        Member joined = mock(Member.class);
+        when(joined.hasPermission(Permission.ADMINISTRATOR)).thenReturn(true);
+        when(guild.getMemberById(30L)).thenReturn(joined);
+
+        GuildMemberJoinEvent joinEvent = mock(GuildMemberJoinEvent.class);
+        User user = user(30L);
+        when(joinEvent.getUser()).thenReturn(user);
+        when(joinEvent.getGuild()).thenReturn(guild);
+        permissionService.onGuildMemberJoin(joinEvent);
+
+        assertThat(permissionService.isAdmin(guild, 30L)).isTrue();
+
+        when(guild.getMemberById(30L)).thenReturn(null);
+
+        GuildMemberRemoveEvent removeEvent = mock(GuildMemberRemoveEvent.class);
+        when(removeEvent.getUser()).thenReturn(user);
+        when(removeEvent.getGuild()).thenReturn(guild);
+        permissionService.onGuildMemberRemove(removeEvent);
+
+        assertThat(permissionService.isAdmin(guild, 30L)).isFalse();
+    }
+
+    @Test
+    void rolePermissionChangesInvalidateOnlyTheirGuild() {
+        permissionService.isAdmin(guild, 10L);
+        permissionService.isAdmin(otherGuild, 10L);
+        demoteAdmin();
+
+        RoleUpdatePermissionsEvent event = mock(RoleUpdatePermissionsEvent.class);
+        when(event.getGuild()).thenReturn(guild);
+        permissionService.onRoleUpdatePermissions(event);
+
+        assertThat(permissionService.isAdmin(guild, 10L)).isFalse();
+        assertThat(permissionService.isAdmin(otherGuild, 10L)).isTrue();
+    }
+
+    @Test
+    void roleDeletionsInvalidateTheGuild() {
+        permissionService.isAdmin(guild, 10L);
+        demoteAdmin();
+
+        RoleDeleteEvent event = mock(RoleDeleteEvent.class);
+        when(event.getGuild()).thenReturn(guild);
+        permissionService.onRoleDelete(event);
+
+        assertThat(permissionService.isAdmin(guild, 10L)).isFalse();
+    }
+
+    @Test
+    void ownerChangesInvalidateTheGuild() {
+        permissionService.isAdmin(guild, 20L);
+        when(member.hasPermission(Permission.ADMINISTRATOR)).thenReturn(true);
+
+        GuildUpdateOwnerEvent event = mock(GuildUpdateOwnerEvent.class);
+        when(event.getGuild()).thenReturn(guild);
+        permissionService.onGuildUpdateOwner(event);
+
+        assertThat(permissionService.isAdmin(guild, 20L)).isTrue();
+    }
+
+    @Test
+    void failedRequestsAreNotCached() {
+        failRetrieve(30L, ErrorResponse.SERVER_ERROR);
+
+        assertThat(permissionService.isAdmin(guild, 30L)).isFalse();
+        assertThat(permissionService.isAdmin(guild, 30L)).isFalse();
+
+        verify(guild, times(2)).retrieveMemberById(30L);
+    }
+
+    @Test
+    void unknownMembersAreCached() {
+        failRetrieve(30L, ErrorResponse.UNKNOWN_MEMBER);
+
+        assertThat(permissionService.isAdmin(guild, 30L)).isFalse();
+        assertThat(permissionService.isAdmin(guild, 30L)).isFalse();
+
+        verify(guild, times(1)).retrieveMemberById(30L);
+    }
+}
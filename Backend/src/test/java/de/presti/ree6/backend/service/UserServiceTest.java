@@ -0,0 +1,158 @@
+package de.presti.ree6.backend.service;
+
+import de.presti.ree6.backend.bot.BotWorker;
+import de.presti.ree6.backend.utils.data.container.user.UserContainer;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.concurrent.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final UserService userService = new UserService(Duration.ofMinutes(5), TIMEOUT);
+
+    private final Guild guild = mock(Guild.class);
+
+    private final List<Task<List<Member>>> tasks = new ArrayList<>();
+
+    @BeforeEach
+    void mockDiscord() {
+        // Users that aren't cached by JDA are unknown to the Shard Manager.
+        ReflectionTestUtils.setField(BotWorker.class, "shardManager", mock(ShardManager.class));
+        when(guild.getIdLong()).thenReturn(1L);
+    }
+
+    @AfterEach
+    void removeShardManager() {
+        ReflectionTestUtils.setField(BotWorker.class, "shardManager", null);
+    }
+
+    private static Member member(long userId) {
+        User user = mock(User.class);
+        when(user.getIdLong()).thenReturn(userId);
+        when(user.getName()).thenReturn("user" + userId);
+        when(user.getDiscriminator()).thenReturn("0");
+
+        Member member = mock(Member.class);
+        when(member.getIdLong()).thenReturn(userId);
+        when(member.getUser()).thenReturn(user);
+        return member;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void retrieveReturns(long... userIds) {
+        when(guild.retrieveMembersByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> requested = invocation.getArgument(0);
+            List<Member> members = LongStream.of(userIds).filter(requested::contains).mapToObj(UserServiceTest::member).toList();
+            Task<List<Member>> task = mock(Task.class);
+            when(task.setTimeout(TIMEOUT)).thenReturn(task);
+            when(task.get()).thenReturn(members);
+            tasks.add(task);
+            return task;
+        });
+    }
+
+    @Test
+    void cachedMembersAreNotRequested() {
+        Member member = member(2L);
+        when(guild.getMemberById(2L)).thenReturn(member);
+
+        assertThat(userService.retrieveUser(guild, 2L).getName()).isEqualTo("user2");
+        verify(guild, never()).retrieveMembersByIds(anyCollection());
+    }
+
+    @Test
+    void missingMembersAreRequestedWithATimeout() {
+        retrieveReturns(2L);
+
+        assertThat(userService.retrieveUser(guild, 2L).getName()).isEqualTo("user2");
+        verify(tasks.get(0)).setTimeout(TIMEOUT);
+    }
+
+    @Test
+    void resolvedProfilesAreCached() {
+        retrieveReturns(2L);
+
+        userService.retrieveUser(guild, 2L);
+        userService.retrieveUser(guild, 2L);
+
+        verify(guild, times(1)).retrieveMembersByIds(anyCollection());
+    }
+
+    @Test
+    void departedUsersAreNotRequestedAgain() {
+        retrieveReturns(2L);
+
+        Map<Long, UserContainer> users = userService.retrieveUsers(guild, List.of(2L, 3L));
+        assertThat(users.get(3L).getName()).isEqualTo("Unknown User");
+
+        assertThat(userService.retrieveUser(guild, 3L).getName()).isEqualTo("Unknown User");
+        verify(guild, times(1)).retrieveMembersByIds(anyCollection());
+    }
+
+    @Test
+    void departedUsersAreRememberedPerGuild() {
+        retrieveReturns();
+        userService.retrieveUser(guild, 3L);
+
+        Guild otherGuild = mock(Guild.class);
+        when(otherGuild.getIdLong()).thenReturn(2L);
+        when(otherGuild.getMemberById(anyLong())).thenReturn(null);
+        Task<List<Member>> task = tasks.get(0);
+        when(otherGuild.retrieveMembersByIds(anyCollection())).thenReturn(task);
+
+        userService.retrieveUser(otherGuild, 3L);
+        verify(otherGuild).retrieveMembersByIds(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedChunksAreRequestedAgain() {
+        Task<List<Member>> task = mock(Task.class);
+        when(task.setTimeout(TIMEOUT)).thenReturn(task);
+        when(task.get()).thenThrow(new IllegalStateException("timed out"));
+        when(guild.retrieveMembersByIds(anyCollection())).thenReturn(task);
+
+        assertThat(userService.retrieveUser(guild, 3L).getName()).isEqualTo("Unknown User");
+        userService.retrieveUser(guild, 3L);
+
+        verify(guild, times(2)).retrieveMembersByIds(anyCollection());
+    }
+
+    @Test
+    void missingMembersAreRequestedInChunks() {
+        retrieveReturns();
+
+        userService.retrieveUsers(guild, LongStream.rangeClosed(1, 250).boxed().toList());
+
+        verify(guild, times(3)).retrieveMembersByIds(anyCollection());
+    }
+
+    @Test
+    void withoutGuildOnlyTheCachesAreUsed() {
+        assertThat(userService.retrieveUser(null, 3L).getName()).isEqualTo("Unknown User");
+    }
+}
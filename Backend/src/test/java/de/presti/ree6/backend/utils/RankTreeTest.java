@@ -0,0 +1,120 @@
+package de.presti.ree6.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankTreeTest {
+
+    private final RankTree rankTree = new RankTree();
+
+    @Test
+    void higherScoresRankFirstAndTiesByLowerId() {
+        rankTree.put(3L, 100L);
+        rankTree.put(1L, 50L);
+        rankTree.put(2L, 100L);
+
+        assertThat(rankTree.rank(2L)).isZero();
+        assertThat(rankTree.rank(3L)).isEqualTo(1);
+        assertThat(rankTree.rank(1L)).isEqualTo(2);
+        assertThat(rankTree.range(0, 10)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void unknownIdsHaveNoRank() {
+        rankTree.put(1L, 10L);
+
+        assertThat(rankTree.rank(2L)).isEqualTo(-1);
+        assertThat(rankTree.score(2L)).isNull();
+    }
+
+    @Test
+    void updatingAScoreMovesTheId() {
+        rankTree.put(1L, 10L);
+        rankTree.put(2L, 20L);
+        rankTree.put(1L, 30L);
+
+        assertThat(rankTree.range(0, 10)).containsExactly(1L, 2L);
+        assertThat(rankTree.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removedIdsAreNotRanked() {
+        rankTree.put(1L, 10L);
+        rankTree.put(2L, 20L);
+        rankTree.remove(2L);
+
+        assertThat(rankTree.rank(2L)).isEqualTo(-1);
+        assertThat(rankTree.rank(1L)).isZero();
+        assertThat(rankTree.size()).isEqualTo(1);
+    }
+
+    @Test
+    void countBeforeGivesTheOffsetAfterACursor() {
+        rankTree.put(1L, 30L);
+        rankTree.put(2L, 20L);
+        rankTree.put(3L, 20L);
+        rankTree.put(4L, 10L);
+
+        // Everything ordered at or before the entry (20, 2).
+        assertThat(rankTree.countBefore(20L, 2L + 1)).isEqualTo(2);
+        // A cursor of an entry which is gone still continues at its position.
+        assertThat(rankTree.countBefore(25L, 5L + 1)).isEqualTo(1);
+    }
+
+    @Test
+    void rangesBeyondTheEndAreEmpty() {
+        rankTree.put(1L, 10L);
+
+        assertThat(rankTree.range(1, 10)).isEmpty();
+        assertThat(rankTree.range(0, 0)).isEmpty();
+    }
+
+    @Test
+    void updateAppliesOnlyTheDifference() {
+        rankTree.put(1L, 10L);
+        rankTree.put(2L, 20L);
+        rankTree.put(3L, 30L);
+
+        rankTree.update(Map.of(1L, 40L, 3L, 30L, 4L, 5L));
+
+        assertThat(rankTree.range(0, 10)).containsExactly(1L, 3L, 4L);
+        assertThat(rankTree.score(2L)).isNull();
+    }
+
+    @Test
+    void ranksMatchASortedList() {
+        Random random = new Random(42);
+        Map<Long, Long> scores = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(1000);
+
+            if (random.nextInt(5) == 0) {
+                rankTree.remove(id);
+                scores.remove(id);
+            } else {
+                long score = random.nextInt(100);
+                rankTree.put(id, score);
+                scores.put(id, score);
+            }
+        }
+
+        List<Long> expected = new ArrayList<>(scores.keySet());
+        expected.sort(Comparator.<Long>comparingLong(scores::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+        assertThat(rankTree.size()).isEqualTo(expected.size());
+        assertThat(rankTree.range(0, expected.size())).containsExactly(expected.stream().mapToLong(Long::longValue).toArray());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(rankTree.rank(expected.get(i))).isEqualTo(i);
+        }
+    }
+}
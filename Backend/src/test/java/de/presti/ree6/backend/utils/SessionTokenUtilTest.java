@@ -0,0 +1,71 @@
+package de.presti.ree6.backend.utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionTokenUtilTest {
+
+    @BeforeAll
+    static void setSecretKey() {
+        // The configured secret is read through the running Server, which doesn't exist in tests.
+        ReflectionTestUtils.setField(SessionTokenUtil.class, "secretKey",
+                new SecretKeySpec("test-secret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    }
+
+    private static SessionTokenUtil.SessionToken token(long expiresAt) {
+        return new SessionTokenUtil.SessionToken("identifier", 42L, "name", "0", "https://cdn.discordapp.com/avatar.png", 3, expiresAt);
+    }
+
+    @Test
+    void verifyReturnsTheIssuedContent() {
+        SessionTokenUtil.SessionToken sessionToken = token(System.currentTimeMillis() + 60_000);
+        String issued = SessionTokenUtil.issue(sessionToken);
+
+        assertThat(SessionTokenUtil.isToken(issued)).isTrue();
+        assertThat(SessionTokenUtil.verify(issued)).isEqualTo(sessionToken);
+    }
+
+    @Test
+    void verifyRejectsExpiredTokens() {
+        String issued = SessionTokenUtil.issue(token(System.currentTimeMillis() - 1));
+
+        assertThat(SessionTokenUtil.verify(issued)).isNull();
+    }
+
+    @Test
+    void verifyRejectsTamperedPayloads() {
+        String issued = SessionTokenUtil.issue(token(System.currentTimeMillis() + 60_000));
+        String[] parts = issued.split("\\.");
+
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(new String(Base64.getUrlDecoder().decode(parts[1]),
+                StandardCharsets.UTF_8).replace("\"userId\":42", "\"userId\":43").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(forgedPayload).isNotEqualTo(parts[1]);
+        assertThat(SessionTokenUtil.verify(parts[0] + "." + forgedPayload + "." + parts[2])).isNull();
+    }
+
+    @Test
+    void verifyRejectsTamperedSignatures() {
+        String issued = SessionTokenUtil.issue(token(System.currentTimeMillis() + 60_000));
+        int signature = issued.lastIndexOf('.') + 1;
+        char first = issued.charAt(signature);
+
+        assertThat(SessionTokenUtil.verify(issued.substring(0, signature) + (first == 'A' ? 'B' : 'A') + issued.substring(signature + 1))).isNull();
+    }
+
+    @Test
+    void verifyRejectsMalformedValues() {
+        assertThat(SessionTokenUtil.isToken("plain-session-identifier")).isFalse();
+        assertThat(SessionTokenUtil.verify("plain-session-identifier")).isNull();
+        assertThat(SessionTokenUtil.verify("ree6.only-one-part")).isNull();
+        assertThat(SessionTokenUtil.verify("ree6.not base64.!")).isNull();
+        assertThat(SessionTokenUtil.verify(null)).isNull();
+    }
+}
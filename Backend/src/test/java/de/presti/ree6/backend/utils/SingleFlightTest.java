@@ -0,0 +1,73 @@
+package de.presti.ree6.backend.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>(new SimpleMeterRegistry(), "test");
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentCallsShareOneExecution() {
+        Sinks.One<String> sink = Sinks.one();
+
+        Mono<String> first = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return sink.asMono();
+        });
+        Mono<String> second = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return Mono.just("other");
+        });
+
+        // Subscribe both before the running call completes.
+        Mono<String> firstResult = first.cache();
+        Mono<String> secondResult = second.cache();
+        firstResult.subscribe();
+        secondResult.subscribe();
+
+        sink.tryEmitValue("value");
+
+        assertThat(firstResult.block(Duration.ofSeconds(1))).isEqualTo("value");
+        assertThat(secondResult.block(Duration.ofSeconds(1))).isEqualTo("value");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(1);
+        assertThat(singleFlight.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        assertThat(singleFlight.execute("a", () -> Mono.just("a")).block()).isEqualTo("a");
+        assertThat(singleFlight.execute("b", () -> Mono.just("b")).block()).isEqualTo("b");
+
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(2);
+        assertThat(singleFlight.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void completedCallsAreExecutedAgain() {
+        assertThat(singleFlight.execute("key", () -> Mono.just("first")).block()).isEqualTo("first");
+        assertThat(singleFlight.execute("key", () -> Mono.just("second")).block()).isEqualTo("second");
+
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failedCallsAreExecutedAgain() {
+        Mono<String> failing = singleFlight.execute("key", () -> Mono.error(new IllegalStateException("failure")));
+
+        assertThatThrownBy(failing::block).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.execute("key", () -> Mono.just("value")).block()).isEqualTo("value");
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,82 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagrosh.jdautilities.oauth2.Scope;
+import com.jagrosh.jdautilities.oauth2.session.SessionData;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomSessionControllerTest {
+
+    private static final OffsetDateTime EXPIRATION = OffsetDateTime.now(ZoneOffset.UTC).plusDays(7);
+
+    private final AtomicLong time = new AtomicLong();
+
+    private final CustomSessionController sessionController = new CustomSessionController(Caffeine.newBuilder()
+            .maximumSize(2)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .ticker(time::get)
+            .executor(Runnable::run)
+            .build());
+
+    private CustomSessionController.CustomSession createSession(String identifier) {
+        return sessionController.createSession(new SessionData(identifier, "access-token", "refresh-token", "Bearer", EXPIRATION,
+                new Scope[]{Scope.IDENTIFY, Scope.GUILDS}));
+    }
+
+    private void advance(Duration duration) {
+        time.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void createdSessionsKeepTheirData() {
+        createSession("identifier");
+
+        CustomSessionController.CustomSession session = sessionController.getSession("identifier");
+
+        assertThat(session.getAccessToken()).isEqualTo("access-token");
+        assertThat(session.getRefreshToken()).isEqualTo("refresh-token");
+        assertThat(session.getTokenType()).isEqualTo("Bearer");
+        assertThat(session.getExpiration()).isEqualTo(EXPIRATION);
+        assertThat(session.getScopes()).containsExactly(Scope.IDENTIFY, Scope.GUILDS);
+    }
+
+    @Test
+    void removedSessionsAreGone() {
+        createSession("identifier");
+        sessionController.removeSession("identifier");
+
+        assertThat(sessionController.getSession("identifier")).isNull();
+    }
+
+    @Test
+    void theStoreIsBounded() {
+        createSession("first");
+        createSession("second");
+        createSession("third");
+
+        sessionController.sessions.cleanUp();
+
+        assertThat(sessionController.sessions.estimatedSize()).isEqualTo(2);
+    }
+
+    @Test
+    void idleSessionsExpire() {
+        createSession("idle");
+        createSession("used");
+
+        advance(Duration.ofMinutes(20));
+        assertThat(sessionController.getSession("used")).isNotNull();
+
+        advance(Duration.ofMinutes(20));
+
+        assertThat(sessionController.getSession("idle")).isNull();
+        assertThat(sessionController.getSession("used")).isNotNull();
+    }
+}
@@ -0,0 +1,164 @@
+package de.presti.ree6.backend.utils.data;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseRecordingStorageTest {
+
+    private static final RecordingStorage.RecordingMapping MAPPING = new RecordingStorage.RecordingMapping("Recording", "identifier", "recording");
+
+    private static final int CHUNK = DatabaseRecordingStorage.CHUNK_SIZE;
+
+    // Two and a half chunks, so every boundary case is covered.
+    private static final byte[] AUDIO = new byte[CHUNK * 5 / 2];
+
+    static {
+        new Random(42).nextBytes(AUDIO);
+    }
+
+    private JdbcDataSource dataSource;
+
+    private DatabaseRecordingStorage storage;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Recording (identifier VARCHAR(255) PRIMARY KEY, recording BLOB)");
+            statement.execute("INSERT INTO Recording (identifier) VALUES ('empty')");
+        }
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO Recording (identifier, recording) VALUES ('recording', ?)")) {
+            statement.setBytes(1, AUDIO);
+            statement.executeUpdate();
+        }
+
+        storage = new DatabaseRecordingStorage(() -> dataSource, () -> MAPPING);
+    }
+
+    private InputStream open() throws IOException {
+        return storage.open("recording").getInputStream();
+    }
+
+    @Test
+    void recordingsWithoutAudioAreNotOpened() {
+        assertThat(storage.open("empty")).isNull();
+        assertThat(storage.open("missing")).isNull();
+    }
+
+    @Test
+    void resourcesKnowTheirLengthWithoutReading() {
+        Resource resource = storage.open("recording");
+
+        assertThat(resource.exists()).isTrue();
+        assertThat(storage.length("recording")).isEqualTo(AUDIO.length);
+        assertThat(((RecordingStorage.TaggedResource) resource).getEntityTag()).isEqualTo("\"blob-recording-" + AUDIO.length + "\"");
+    }
+
+    @Test
+    void streamsReadEveryChunk() throws IOException {
+        try (InputStream inputStream = open()) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(AUDIO);
+            assertThat(inputStream.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void readsDoNotCrossChunks() throws IOException {
+        try (InputStream inputStream = open()) {
+            byte[] buffer = new byte[CHUNK * 2];
+
+            assertThat(inputStream.read(buffer, 0, buffer.length)).isEqualTo(CHUNK);
+            assertThat(inputStream.available()).isZero();
+            assertThat(inputStream.read()).isEqualTo(AUDIO[CHUNK] & 0xFF);
+            assertThat(inputStream.available()).isEqualTo(CHUNK - 1);
+        }
+    }
+
+    @Test
+    void skippingWithinAChunkKeepsIt() throws IOException {
+        try (InputStream inputStream = open()) {
+            assertThat(inputStream.read()).isEqualTo(AUDIO[0] & 0xFF);
+            assertThat(inputStream.skip(100)).isEqualTo(100);
+            assertThat(inputStream.available()).isEqualTo(CHUNK - 101);
+            assertThat(inputStream.readNBytes(10)).isEqualTo(Arrays.copyOfRange(AUDIO, 101, 111));
+        }
+    }
+
+    @Test
+    void skippingAcrossChunksContinuesAtTheOffset() throws IOException {
+        try (InputStream inputStream = open()) {
+            inputStream.readNBytes(10);
+
+            assertThat(inputStream.skip(CHUNK + 5)).isEqualTo(CHUNK + 5);
+            assertThat(inputStream.readNBytes(CHUNK)).isEqualTo(Arrays.copyOfRange(AUDIO, CHUNK + 15, CHUNK * 2 + 15));
+        }
+    }
+
+    @Test
+    void skippingToAChunkBoundaryStartsTheNextChunk() throws IOException {
+        try (InputStream inputStream = open()) {
+            assertThat(inputStream.skip(CHUNK * 2)).isEqualTo(CHUNK * 2);
+            assertThat(inputStream.readAllBytes()).isEqualTo(Arrays.copyOfRange(AUDIO, CHUNK * 2, AUDIO.length));
+        }
+    }
+
+    @Test
+    void skippingPastTheEndStopsAtTheEnd() throws IOException {
+        try (InputStream inputStream = open()) {
+            inputStream.skip(AUDIO.length - 5);
+
+            assertThat(inputStream.skip(100)).isEqualTo(5);
+            assertThat(inputStream.skip(100)).isZero();
+            assertThat(inputStream.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void blobsWithOpenDownloadsAreNotBlocked() throws IOException {
+        try (InputStream ignored = open()) {
+            assertThat(storage.tryBlockReaders("recording")).isFalse();
+        }
+
+        assertThat(storage.tryBlockReaders("recording")).isTrue();
+    }
+
+    @Test
+    void blockedBlobsAreNotDownloaded() {
+        Resource resource = storage.open("recording");
+
+        assertThat(storage.tryBlockReaders("recording")).isTrue();
+        assertThatThrownBy(resource::getInputStream).isInstanceOf(IOException.class);
+
+        storage.unblockReaders("recording");
+        assertThat(storage.tryBlockReaders("recording")).isTrue();
+    }
+
+    @Test
+    void plainStreamsIgnoreTheBlock() throws SQLException, IOException {
+        assertThat(storage.tryBlockReaders("recording")).isTrue();
+
+        try (InputStream inputStream = storage.openStream("recording", AUDIO.length)) {
+            assertThat(inputStream.readNBytes(10)).isEqualTo(Arrays.copyOf(AUDIO, 10));
+        }
+    }
+}
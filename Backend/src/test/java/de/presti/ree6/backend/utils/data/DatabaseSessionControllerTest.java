@@ -0,0 +1,169 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagrosh.jdautilities.oauth2.Scope;
+import com.jagrosh.jdautilities.oauth2.session.SessionData;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabaseSessionControllerTest {
+
+    private static final OffsetDateTime EXPIRATION = OffsetDateTime.now(ZoneOffset.UTC).plusDays(7).truncatedTo(ChronoUnit.MILLIS);
+
+    private JdbcDataSource dataSource;
+
+    private DatabaseSessionController sessionController;
+
+    @BeforeEach
+    void createDatabase() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        sessionController = controller("secret");
+    }
+
+    private DatabaseSessionController controller(String encryptionKey) {
+        // Every controller has its own near-cache, so a new one has to read the Session from the Database.
+        return new DatabaseSessionController(encryptionKey, () -> dataSource, Caffeine.newBuilder().build());
+    }
+
+    private void createSession(String identifier) {
+        sessionController.createSession(new SessionData(identifier, "access-token", "refresh-token", "Bearer", EXPIRATION,
+                new Scope[]{Scope.IDENTIFY, Scope.GUILDS}));
+    }
+
+    private String column(String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + column + " FROM WebinterfaceSessions")) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    private void setLastUsed(long lastUsed) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE WebinterfaceSessions SET lastUsed = ?")) {
+            statement.setLong(1, lastUsed);
+            statement.executeUpdate();
+        }
+    }
+
+    @Test
+    void storedSessionsAreReadBack() {
+        createSession("identifier");
+
+        DatabaseSessionController.CustomSession session = controller("secret").getSession("identifier");
+
+        assertThat(session).isNotNull();
+        assertThat(session.getIdentifier()).isEqualTo("identifier");
+        assertThat(session.getAccessToken()).isEqualTo("access-token");
+        assertThat(session.getRefreshToken()).isEqualTo("refresh-token");
+        assertThat(session.getTokenType()).isEqualTo("Bearer");
+        assertThat(session.getExpiration()).isEqualTo(EXPIRATION);
+        assertThat(session.getScopes()).containsExactly(Scope.IDENTIFY, Scope.GUILDS);
+    }
+
+    @Test
+    void neitherTokensNorIdentifiersAreStoredInPlain() throws SQLException {
+        createSession("identifier");
+
+        assertThat(column("accessToken")).isNotEqualTo("access-token").doesNotContain("access-token");
+        assertThat(column("refreshToken")).isNotEqualTo("refresh-token").doesNotContain("refresh-token");
+        assertThat(column("identifierHash")).hasSize(64).doesNotContain("identifier");
+    }
+
+    @Test
+    void sessionsStoredWithAnotherKeyAreMissing() {
+        createSession("identifier");
+
+        assertThat(controller("other secret").getSession("identifier")).isNull();
+    }
+
+    @Test
+    void unknownSessionsAreMissing() {
+        createSession("identifier");
+
+        assertThat(controller("secret").getSession("other")).isNull();
+    }
+
+    @Test
+    void tamperedTokensAreMissing() throws SQLException {
+        createSession("identifier");
+
+        // Flipping the first character changes the IV, so the authentication tag doesn't match anymore.
+        String accessToken = column("accessToken");
+        String tampered = (accessToken.charAt(0) == 'A' ? 'B' : 'A') + accessToken.substring(1);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("UPDATE WebinterfaceSessions SET accessToken = ?")) {
+            statement.setString(1, tampered);
+            statement.executeUpdate();
+        }
+
+        assertThat(controller("secret").getSession("identifier")).isNull();
+    }
+
+    @Test
+    void usageIsOnlyWrittenOnFlush() throws SQLException {
+        createSession("identifier");
+        setLastUsed(1L);
+
+        long before = Instant.now().toEpochMilli();
+        assertThat(sessionController.getSession("identifier")).isNotNull();
+
+        assertThat(column("lastUsed")).isEqualTo("1");
+
+        sessionController.flush();
+
+        assertThat(Long.parseLong(column("lastUsed"))).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    void flushingWithoutUsageWritesNothing() throws SQLException {
+        createSession("identifier");
+        setLastUsed(1L);
+
+        sessionController.flush();
+
+        assertThat(column("lastUsed")).isEqualTo("1");
+    }
+
+    @Test
+    void removedSessionsAreDeleted() throws SQLException {
+        createSession("identifier");
+        sessionController.getSession("identifier");
+
+        sessionController.removeSession("identifier");
+        sessionController.flush();
+
+        assertThat(column("identifierHash")).isNull();
+        assertThat(controller("secret").getSession("identifier")).isNull();
+    }
+
+    @Test
+    void creatingASessionAgainReplacesIt() {
+        createSession("identifier");
+        sessionController.createSession(new SessionData("identifier", "new-access-token", "new-refresh-token", "Bearer", EXPIRATION,
+                new Scope[]{Scope.IDENTIFY}));
+
+        DatabaseSessionController.CustomSession session = controller("secret").getSession("identifier");
+
+        assertThat(session).isNotNull();
+        assertThat(session.getAccessToken()).isEqualTo("new-access-token");
+        assertThat(session.getScopes()).containsExactly(Scope.IDENTIFY);
+    }
+}
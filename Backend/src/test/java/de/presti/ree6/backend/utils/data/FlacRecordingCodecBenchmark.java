@@ -0,0 +1,77 @@
+package de.presti.ree6.backend.utils.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the FLAC compression of Recordings, reporting size, throughput and losslessness on synthetic voice chat audio.
+ * Only runs with {@code -Dbenchmark=true}, e.g. {@code mvn test -Dtest=FlacRecordingCodecBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FlacRecordingCodecBenchmark {
+
+    /**
+     * The length in seconds and the share of silence in percent of the benchmarked Recordings.
+     */
+    private static final int[][] CASES = {{60, 50}, {300, 50}, {300, 80}, {600, 65}};
+
+    /**
+     * The runs per case, the best one is reported.
+     */
+    private static final int RUNS = 3;
+
+    @Test
+    void benchmark(@TempDir Path directory) throws Exception {
+        Path flac = directory.resolve("recording.flac");
+
+        System.out.println("length  silence   WAV        FLAC       saved   encode                 decode");
+
+        for (int[] benchmarkCase : CASES) {
+            byte[] wav = SyntheticRecording.wav(SyntheticRecording.pcm(benchmarkCase[0], 42 + benchmarkCase[0], benchmarkCase[1] / 100.0));
+
+            // Warm up the encoder, so the first case isn't measured with a cold JIT.
+            FlacRecordingCodec.encode(new ByteArrayInputStream(wav), flac);
+
+            long encodeNanos = Long.MAX_VALUE;
+            long decodedLength = 0;
+
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                decodedLength = FlacRecordingCodec.encode(new ByteArrayInputStream(wav), flac);
+                encodeNanos = Math.min(encodeNanos, System.nanoTime() - start);
+            }
+
+            long decodeNanos = Long.MAX_VALUE;
+            byte[] decoded = new byte[0];
+
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+
+                try (InputStream inputStream = FlacRecordingCodec.decode(Files.newInputStream(flac))) {
+                    decoded = inputStream.readAllBytes();
+                }
+
+                decodeNanos = Math.min(decodeNanos, System.nanoTime() - start);
+            }
+
+            long flacLength = Files.size(flac);
+
+            System.out.printf("%4d s   %3d %%   %6.1f MB  %6.1f MB  %5.1f %%  %5.1f MB/s (%4.0fx rt)  %6.1f MB/s%n",
+                    benchmarkCase[0], benchmarkCase[1], wav.length / 1e6, flacLength / 1e6, 100.0 * (wav.length - flacLength) / wav.length,
+                    wav.length / 1e6 / (encodeNanos / 1e9), benchmarkCase[0] / (encodeNanos / 1e9), decoded.length / 1e6 / (decodeNanos / 1e9));
+
+            assertThat(decoded).hasSize((int) decodedLength);
+            assertThat(Arrays.copyOfRange(decoded, FlacRecordingCodec.WAV_HEADER_SIZE, decoded.length))
+                    .isEqualTo(Arrays.copyOfRange(wav, wav.length - (decoded.length - FlacRecordingCodec.WAV_HEADER_SIZE), wav.length));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package de.presti.ree6.backend.utils.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlacRecordingCodecTest {
+
+    @TempDir
+    Path directory;
+
+    private byte[] roundTrip(byte[] wav, long expectedLength) throws IOException {
+        Path flac = directory.resolve("recording.flac");
+
+        assertThat(FlacRecordingCodec.encode(new ByteArrayInputStream(wav), flac)).isEqualTo(expectedLength);
+
+        try (InputStream inputStream = FlacRecordingCodec.decode(Files.newInputStream(flac))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static byte[] data(byte[] wav) {
+        return Arrays.copyOfRange(wav, FlacRecordingCodec.WAV_HEADER_SIZE, wav.length);
+    }
+
+    @Test
+    void recordingsDecodeBitExact() throws IOException {
+        byte[] pcm = SyntheticRecording.pcm(5, 42, 0.5);
+        byte[] wav = SyntheticRecording.wav(pcm);
+
+        byte[] decoded = roundTrip(wav, FlacRecordingCodec.WAV_HEADER_SIZE + pcm.length);
+
+        assertThat(decoded).hasSize(FlacRecordingCodec.WAV_HEADER_SIZE + pcm.length);
+        assertThat(data(decoded)).isEqualTo(pcm);
+    }
+
+    @Test
+    void decodingWritesACanonicalHeader() throws IOException {
+        byte[] pcm = SyntheticRecording.pcm(1, 7, 0.2);
+        byte[] decoded = roundTrip(SyntheticRecording.wav(pcm), FlacRecordingCodec.WAV_HEADER_SIZE + pcm.length);
+
+        ByteBuffer header = ByteBuffer.wrap(decoded, 0, FlacRecordingCodec.WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(new String(decoded, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("RIFF");
+        assertThat(header.getInt(4)).isEqualTo(decoded.length - 8);
+        assertThat(new String(decoded, 8, 8, StandardCharsets.US_ASCII)).isEqualTo("WAVEfmt ");
+        assertThat(header.getShort(20)).isEqualTo((short) 1);
+        assertThat(header.getShort(22)).isEqualTo((short) 2);
+        assertThat(header.getInt(24)).isEqualTo(SyntheticRecording.SAMPLE_RATE);
+        assertThat(header.getShort(34)).isEqualTo((short) 16);
+        assertThat(new String(decoded, 36, 4, StandardCharsets.US_ASCII)).isEqualTo("data");
+        assertThat(header.getInt(40)).isEqualTo(pcm.length);
+    }
+
+    @Test
+    void silenceAndFullScaleSamplesDecodeBitExact() throws IOException {
+        byte[] pcm = new byte[SyntheticRecording.SAMPLE_RATE * 4];
+
+        // Silence in the first half, alternating extremes in the second.
+        for (int i = pcm.length / 2; i < pcm.length; i += 2) {
+            short sample = (i / 2) % 2 == 0 ? Short.MAX_VALUE : Short.MIN_VALUE;
+            pcm[i] = (byte) sample;
+            pcm[i + 1] = (byte) (sample >> 8);
+        }
+
+        assertThat(data(roundTrip(SyntheticRecording.wav(pcm), FlacRecordingCodec.WAV_HEADER_SIZE + pcm.length))).isEqualTo(pcm);
+    }
+
+    @Test
+    void recordingsShorterThanABlockDecodeBitExact() throws IOException {
+        byte[] pcm = Arrays.copyOf(SyntheticRecording.pcm(1, 3, 0), 100 * 4);
+
+        assertThat(data(roundTrip(SyntheticRecording.wav(pcm), FlacRecordingCodec.WAV_HEADER_SIZE + pcm.length))).isEqualTo(pcm);
+    }
+
+    @Test
+    void chunksInFrontOfTheDataAreSkipped() throws IOException {
+        byte[] pcm = SyntheticRecording.pcm(1, 11, 0.3);
+        byte[] wav = SyntheticRecording.wav(pcm);
+
+        // Insert an odd sized LIST chunk with its padding byte between the format and the data chunk.
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(wav, 0, 36);
+        outputStream.write("LIST".getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(3).array());
+        outputStream.write(new byte[]{1, 2, 3, 0});
+        outputStream.write(wav, 36, wav.length - 36);
+
+        assertThat(data(roundTrip(outputStream.toByteArray(), FlacRecordingCodec.WAV_HEADER_SIZE + pcm.length))).isEqualTo(pcm);
+    }
+
+    @Test
+    void otherSampleSizesAreNotEncoded() throws IOException {
+        byte[] wav = SyntheticRecording.wav(SyntheticRecording.pcm(1, 5, 0.5));
+        ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN).putShort(34, (short) 24);
+
+        Path flac = directory.resolve("recording.flac");
+
+        assertThat(FlacRecordingCodec.encode(new ByteArrayInputStream(wav), flac)).isEqualTo(-1);
+        assertThat(flac).doesNotExist();
+    }
+
+    @Test
+    void otherFormatsAreNotEncoded() throws IOException {
+        assertThat(FlacRecordingCodec.encode(new ByteArrayInputStream("OggS and then some more bytes".getBytes(StandardCharsets.US_ASCII)),
+                directory.resolve("recording.flac"))).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,118 @@
+package de.presti.ree6.backend.utils.data;
+
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitInterceptorTest {
+
+    private static final Request GUILDS = new Request.Builder().url("https://discord.com/api/users/@me/guilds").header("Authorization", "Bearer token").build();
+
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(10, Duration.ofSeconds(1));
+
+    private final Deque<Response> responses = new ArrayDeque<>();
+
+    private int proceeded;
+
+    private Interceptor.Chain chain(Request request) throws IOException {
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(chain.request()).thenReturn(request);
+        when(chain.proceed(any())).thenAnswer(invocation -> {
+            proceeded++;
+            return responses.removeFirst();
+        });
+        return chain;
+    }
+
+    private static Response response(Request request, int code, String... headers) {
+        Response.Builder builder = new Response.Builder().request(request).protocol(Protocol.HTTP_1_1).code(code).message("")
+                .body(ResponseBody.create("", null));
+
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    void aRateLimitLearnedWithTheBucketFailsTheNextRequestFast() throws IOException {
+        responses.add(response(GUILDS, 429, "X-RateLimit-Bucket", "hash", "Retry-After", "30"));
+
+        assertThatThrownBy(() -> interceptor.intercept(chain(GUILDS))).isInstanceOf(RateLimitInterceptor.RateLimitedException.class);
+        assertThatThrownBy(() -> interceptor.intercept(chain(GUILDS))).isInstanceOf(RateLimitInterceptor.RateLimitedException.class)
+                .hasMessageContaining("Bucket exhausted");
+
+        assertThat(proceeded).isEqualTo(1);
+    }
+
+    @Test
+    void anExhaustedBucketLearnedWithTheBucketIsWaitedFor() throws IOException {
+        responses.add(response(GUILDS, 200, "X-RateLimit-Bucket", "hash", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset-After", "0.3"));
+        responses.add(response(GUILDS, 200, "X-RateLimit-Bucket", "hash", "X-RateLimit-Remaining", "4", "X-RateLimit-Reset-After", "1"));
+
+        interceptor.intercept(chain(GUILDS)).close();
+
+        long start = System.nanoTime();
+        interceptor.intercept(chain(GUILDS)).close();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+        assertThat(proceeded).isEqualTo(2);
+    }
+
+    @Test
+    void routesSharingABucketShareItsState() throws IOException {
+        Request guild = new Request.Builder().url("https://discord.com/api/users/@me/guilds/123456789012345678/member")
+                .header("Authorization", "Bearer token").build();
+
+        responses.add(response(GUILDS, 200, "X-RateLimit-Bucket", "hash", "X-RateLimit-Remaining", "1", "X-RateLimit-Reset-After", "30"));
+        responses.add(response(guild, 200, "X-RateLimit-Bucket", "other", "X-RateLimit-Remaining", "1", "X-RateLimit-Reset-After", "30"));
+        responses.add(response(GUILDS, 429, "X-RateLimit-Bucket", "hash", "Retry-After", "30"));
+
+        interceptor.intercept(chain(GUILDS)).close();
+        interceptor.intercept(chain(guild)).close();
+        assertThatThrownBy(() -> interceptor.intercept(chain(GUILDS))).isInstanceOf(RateLimitInterceptor.RateLimitedException.class);
+
+        assertThatThrownBy(() -> interceptor.intercept(chain(GUILDS))).hasMessageContaining("Bucket exhausted");
+        assertThat(proceeded).isEqualTo(3);
+    }
+
+    @Test
+    void otherTokensHaveTheirOwnBuckets() throws IOException {
+        Request otherUser = GUILDS.newBuilder().header("Authorization", "Bearer other").build();
+
+        responses.add(response(GUILDS, 429, "X-RateLimit-Bucket", "hash", "Retry-After", "30"));
+        responses.add(response(otherUser, 200, "X-RateLimit-Bucket", "hash", "X-RateLimit-Remaining", "4"));
+
+        assertThatThrownBy(() -> interceptor.intercept(chain(GUILDS))).isInstanceOf(RateLimitInterceptor.RateLimitedException.class);
+
+        try (Response response = interceptor.intercept(chain(otherUser))) {
+            assertThat(response.code()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void aGlobalRateLimitStopsEveryBucket() throws IOException {
+        Request otherUser = GUILDS.newBuilder().header("Authorization", "Bearer other").build();
+
+        responses.add(response(GUILDS, 429, "X-RateLimit-Global", "true", "Retry-After", "30"));
+
+        assertThatThrownBy(() -> interceptor.intercept(chain(GUILDS))).isInstanceOf(RateLimitInterceptor.RateLimitedException.class);
+        assertThatThrownBy(() -> interceptor.intercept(chain(otherUser))).hasMessageContaining("Bucket exhausted");
+        assertThat(proceeded).isEqualTo(1);
+    }
+}
@@ -0,0 +1,151 @@
+package de.presti.ree6.backend.utils.data;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordingParticipantIndexTest {
+
+    private static final RecordingStorage.RecordingMapping MAPPING = new RecordingStorage.RecordingMapping("Recording", "identifier", "recording");
+
+    private JdbcDataSource dataSource;
+
+    private RecordingParticipantIndex participantIndex;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Recording (identifier VARCHAR(255) PRIMARY KEY, recording BLOB)");
+        }
+
+        participantIndex = new RecordingParticipantIndex(() -> dataSource, () -> MAPPING);
+    }
+
+    private void insertRecording(String identifier) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO Recording (identifier) VALUES (?)")) {
+            statement.setString(1, identifier);
+            statement.executeUpdate();
+        }
+    }
+
+    private static JsonArray participants(String... userIds) {
+        JsonArray jsonArray = new JsonArray();
+        for (String userId : userIds) {
+            jsonArray.add(userId);
+        }
+        return jsonArray;
+    }
+
+    @Test
+    void unindexedRecordingsAreUnknown() {
+        assertThat(participantIndex.isParticipant("recording", 1L)).isEmpty();
+    }
+
+    @Test
+    void indexedRecordingsAnswerForEveryUser() {
+        participantIndex.index("recording", 10L, 1000L, participants("1", "2"));
+
+        assertThat(participantIndex.isParticipant("recording", 1L)).contains(true);
+        assertThat(participantIndex.isParticipant("recording", 2L)).contains(true);
+        assertThat(participantIndex.isParticipant("recording", 3L)).contains(false);
+    }
+
+    @Test
+    void recordingsWithoutParticipantsAreStillIndexed() {
+        participantIndex.index("recording", 10L, 1000L, new JsonArray());
+
+        assertThat(participantIndex.isParticipant("recording", 1L)).contains(false);
+    }
+
+    @Test
+    void theMarkerIsNoParticipant() {
+        participantIndex.index("recording", 10L, 1000L, participants("1"));
+
+        assertThat(participantIndex.isParticipant("recording", 0L)).contains(false);
+    }
+
+    @Test
+    void invalidParticipantsAreIgnored() {
+        JsonArray jsonArray = participants("1", "not an id", " 2 ");
+        jsonArray.add(JsonNull.INSTANCE);
+        jsonArray.add(new JsonArray());
+
+        participantIndex.index("recording", 10L, 1000L, jsonArray);
+
+        assertThat(participantIndex.isParticipant("recording", 1L)).contains(true);
+        assertThat(participantIndex.isParticipant("recording", 2L)).contains(true);
+    }
+
+    @Test
+    void indexingAgainReplacesTheParticipants() {
+        participantIndex.index("recording", 10L, 1000L, participants("1"));
+        participantIndex.index("recording", 10L, 1000L, participants("2"));
+
+        assertThat(participantIndex.isParticipant("recording", 1L)).contains(false);
+        assertThat(participantIndex.isParticipant("recording", 2L)).contains(true);
+    }
+
+    @Test
+    void recordingsOfAUserAreListedNewestFirst() {
+        participantIndex.index("old", 10L, 1000L, participants("1"));
+        participantIndex.index("new", 10L, 2000L, participants("1", "2"));
+        participantIndex.index("other", 10L, 3000L, participants("2"));
+
+        assertThat(participantIndex.retrieveRecordings(1L)).containsExactly("new", "old");
+    }
+
+    @Test
+    void onlyRecordingsWithoutMarkerAreUnindexed() throws SQLException {
+        insertRecording("indexed");
+        insertRecording("unindexed");
+
+        participantIndex.index("indexed", 10L, 1000L, new JsonArray());
+
+        assertThat(participantIndex.retrieveUnindexed(10)).containsExactly("unindexed");
+    }
+
+    @Test
+    void removedRecordingsAreUnknown() {
+        participantIndex.index("recording", 10L, 1000L, participants("1"));
+        participantIndex.remove("recording");
+
+        assertThat(participantIndex.isParticipant("recording", 1L)).isEmpty();
+    }
+
+    @Test
+    void cleanupRemovesDeletedRecordings() throws SQLException {
+        insertRecording("kept");
+
+        participantIndex.index("kept", 10L, 1000L, participants("1"));
+        participantIndex.index("deleted", 10L, 1000L, participants("1"));
+        participantIndex.cleanup();
+
+        assertThat(participantIndex.isParticipant("kept", 1L)).contains(true);
+        assertThat(participantIndex.isParticipant("deleted", 1L)).isEmpty();
+    }
+
+    @Test
+    void creatingTheTableAgainKeepsTheIndex() {
+        participantIndex.index("recording", 10L, 1000L, participants("1"));
+
+        RecordingParticipantIndex secondIndex = new RecordingParticipantIndex(() -> dataSource, () -> MAPPING);
+
+        assertThat(secondIndex.isParticipant("recording", 1L)).isEqualTo(Optional.of(true));
+    }
+}
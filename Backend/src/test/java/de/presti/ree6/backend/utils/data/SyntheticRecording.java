@@ -0,0 +1,96 @@
+package de.presti.ree6.backend.utils.data;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Generator of synthetic voice chat Recordings, 48 kHz 16-bit stereo like the ones the bot writes.
+ * Speech-like bursts of harmonics with noise under a syllable envelope are separated by silence.
+ */
+final class SyntheticRecording {
+
+    /**
+     * The sample rate Discord sends audio with.
+     */
+    static final int SAMPLE_RATE = 48000;
+
+    /**
+     * Constructor should not be called, since it is a utility class that doesn't need an instance.
+     */
+    private SyntheticRecording() {
+    }
+
+    /**
+     * Create the PCM of a Recording, little-endian 16-bit stereo.
+     *
+     * @param seconds      the length of the Recording.
+     * @param seed         the seed of the Recording, the same seed creates the same Recording.
+     * @param silenceRatio the share of the Recording nobody talks in.
+     * @return the PCM.
+     */
+    static byte[] pcm(int seconds, long seed, double silenceRatio) {
+        Random random = new Random(seed);
+        int samples = SAMPLE_RATE * seconds;
+        byte[] pcm = new byte[samples * 4];
+
+        double phase = 0;
+        double pitch = 140;
+        boolean talking = false;
+        int remaining = 0;
+
+        for (int i = 0; i < samples; i++) {
+            if (remaining-- <= 0) {
+                talking = random.nextDouble() > silenceRatio;
+                remaining = SAMPLE_RATE / 4 + random.nextInt(SAMPLE_RATE * 2);
+                pitch = 90 + random.nextInt(180);
+            }
+
+            double sample = 0;
+
+            if (talking) {
+                double envelope = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4 * i / SAMPLE_RATE);
+                phase += 2 * Math.PI * pitch * (1 + 0.05 * Math.sin(2 * Math.PI * 0.7 * i / SAMPLE_RATE)) / SAMPLE_RATE;
+
+                for (int harmonic = 1; harmonic <= 8; harmonic++) {
+                    sample += Math.sin(phase * harmonic) / harmonic;
+                }
+
+                sample = envelope * (0.25 * sample + 0.03 * random.nextGaussian());
+            }
+
+            short left = clamp(sample * 12000);
+            short right = clamp(sample * 11000 + (talking ? random.nextGaussian() * 40 : 0));
+
+            pcm[i * 4] = (byte) left;
+            pcm[i * 4 + 1] = (byte) (left >> 8);
+            pcm[i * 4 + 2] = (byte) right;
+            pcm[i * 4 + 3] = (byte) (right >> 8);
+        }
+
+        return pcm;
+    }
+
+    /**
+     * Write PCM as WAV through the AudioSystem, the way the bot writes Recordings.
+     *
+     * @param pcm the PCM, little-endian 16-bit stereo.
+     * @return the WAV.
+     * @throws IOException if the WAV couldn't be written.
+     */
+    static byte[] wav(byte[] pcm) throws IOException {
+        AudioFormat format = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(pcm), format, pcm.length / 4), AudioFileFormat.Type.WAVE, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static short clamp(double sample) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+    }
+}
@@ -1,6 +1,15 @@
 export const BASE_PATH = "https://backend.cubefm.nl" // <- Edit this string to your own API
 export const INVITE_URL = import.meta.env.VITE_INVITE_URL || "https://invite.ree6.de" // <- Edit this string to your Invite link
 
+// The backend hands out a new session token once the current one is about to expire
+function store_token(res: Response) {
+    const token = res.headers.get("X-Session-Token")
+    if(token) {
+        localStorage.setItem("token", token)
+    }
+    return res
+}
+
 export function get(path: string) {
 
     return fetch(BASE_PATH + path, {
@@ -8,7 +17,7 @@ export function get(path: string) {
         headers: {
             'X-Session-Authenticator': localStorage.getItem("token")!
         },
-    })
+    }).then(store_token)
 }
 
 export async function get_js(path: string) {
@@ -20,7 +29,7 @@ export async function get_js(path: string) {
             headers: {
                 'X-Session-Authenticator': localStorage.getItem("token")!,
             },
-        })
+        }).then(store_token)
     } catch(e) {
         console.error(e)
         return {success: false}
@@ -49,7 +58,7 @@ export function post(path: string, body: string) {
             'X-Session-Authenticator': localStorage.getItem("token")!,
             "Content-Type": "application/json"
         },
-    })
+    }).then(store_token)
 }
 
 export async function post_js(path: string, body: string) {
@@ -62,7 +71,7 @@ export async function post_js(path: string, body: string) {
             'X-Session-Authenticator': localStorage.getItem("token")!,
             "Content-Type": "application/json"
         },
-    })
+    }).then(store_token)
 
     if(res.status != 200) {
         console.error(res.status + " " + path)